@@ -1,8 +1,16 @@
 package com.p2p.kakuro;
 
 import com.formdev.flatlaf.FlatDarkLaf;
+import com.p2p.kakuro.challenge.GameSession;
+import com.p2p.kakuro.challenge.MatchReplay;
+import com.p2p.kakuro.game.GameBoard;
+import com.p2p.kakuro.game.PuzzleGenerator;
+import com.p2p.kakuro.game.PuzzleLibrary;
+import com.p2p.kakuro.network.GossipDisseminator;
+import com.p2p.kakuro.network.OutboundBatcher;
 import com.p2p.kakuro.network.P2PNetworkManager;
 import com.p2p.kakuro.ui.KakuroMainWindow;
+import com.p2p.kakuro.ui.ReplayViewer;
 
 import org.kohsuke.args4j.CmdLineException;
 import org.kohsuke.args4j.CmdLineParser;
@@ -11,9 +19,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 public class KakuroApp {
     private static final Logger logger = LoggerFactory.getLogger(KakuroApp.class);
+    private static final int GENERATE_BATCH = 256;
 
     @Option(name = "-ma", aliases = "--master-address", usage = "Master peer address")
     private String masterAddress = "";
@@ -24,6 +41,36 @@ public class KakuroApp {
     @Option(name = "-lp", aliases = "--local-port", usage = "Local peer port")
     private int localPort = 4001;
 
+    @Option(name = "-pl", aliases = "--puzzle-library", usage = "Directory of a pre-built puzzle library")
+    private String puzzleLibrary = "";
+
+    @Option(name = "-pi", aliases = "--puzzle-import", usage = "Import puzzles from a text file into the puzzle library and exit")
+    private String puzzleImport = "";
+
+    @Option(name = "-pe", aliases = "--puzzle-export", usage = "Export the puzzle library to a text file and exit")
+    private String puzzleExport = "";
+
+    @Option(name = "-pg", aliases = "--puzzle-generate", usage = "Generate puzzles into the puzzle library and exit")
+    private int puzzleGenerate = 0;
+
+    @Option(name = "-gf", aliases = "--gossip-fanout", usage = "Peers each lobby announcement is relayed to (0 disables gossip)")
+    private int gossipFanout = GossipDisseminator.DEFAULT_FANOUT;
+
+    @Option(name = "-gt", aliases = "--gossip-ttl", usage = "Maximum relay hops of a gossiped announcement")
+    private int gossipTtl = GossipDisseminator.DEFAULT_TTL;
+
+    @Option(name = "-bw", aliases = "--batch-window", usage = "Milliseconds in-game notifications are coalesced per recipient (0 sends immediately)")
+    private long batchWindow = OutboundBatcher.DEFAULT_WINDOW_MS;
+
+    @Option(name = "-rd", aliases = "--replay-dir", usage = "Directory where finished matches are recorded")
+    private String replayDir = "";
+
+    @Option(name = "-rp", aliases = "--replay", usage = "Open a recorded match in the replay viewer")
+    private String replayFile = "";
+
+    @Option(name = "-rs", aliases = "--replay-summary", usage = "Print a recorded match without starting the UI")
+    private String replaySummary = "";
+
     public static void main(String[] args) {
         new KakuroApp().run(args);
     }
@@ -38,18 +85,55 @@ public class KakuroApp {
             return;
         }
 
+        if (!replaySummary.isEmpty()) {
+            printReplay(replaySummary);
+            return;
+        }
+
+        if (!puzzleImport.isEmpty() || !puzzleExport.isEmpty() || puzzleGenerate > 0) {
+            if (puzzleLibrary.isEmpty()) {
+                System.err.println("Error: the puzzle library directory (-pl) is required");
+                parser.printUsage(System.err);
+                return;
+            }
+            buildLibrary();
+            return;
+        }
+
         try {
             UIManager.setLookAndFeel(new FlatDarkLaf());
         } catch (Exception e) {
             logger.warn("Could not set FlatLaf, using default L&F");
         }
 
+        if (!replayFile.isEmpty()) {
+            SwingUtilities.invokeLater(() -> {
+                try {
+                    new ReplayViewer(null, MatchReplay.read(Paths.get(replayFile))).setVisible(true);
+                } catch (IOException e) {
+                    logger.error("Failed to open replay {}", replayFile, e);
+                    System.exit(1);
+                }
+            });
+            return;
+        }
+
         SwingUtilities.invokeLater(() -> {
             try {
                 logger.info("Starting P2P Kakuro...");
                 logger.info("Local port: {}, Master: {}:{}", localPort, masterAddress, masterPort);
 
                 P2PNetworkManager client = new P2PNetworkManager(localPort, masterAddress, masterPort);
+                client.setGossip(gossipFanout, gossipTtl);
+                client.setBatchWindow(batchWindow);
+                if (!puzzleLibrary.isEmpty()) {
+                    PuzzleLibrary library = PuzzleLibrary.open(Paths.get(puzzleLibrary));
+                    client.setPuzzleLibrary(library);
+                    logger.info("Serving puzzles from {} ({} puzzles)", puzzleLibrary, library.size());
+                }
+                if (!replayDir.isEmpty()) {
+                    client.setReplayDirectory(Paths.get(replayDir));
+                }
                 KakuroMainWindow frame = new KakuroMainWindow(client);
                 frame.setVisible(true);
 
@@ -63,4 +147,58 @@ public class KakuroApp {
             }
         });
     }
+
+    private void buildLibrary() {
+        try (PuzzleLibrary library = PuzzleLibrary.open(Paths.get(puzzleLibrary))) {
+            if (!puzzleImport.isEmpty()) {
+                try (Reader reader = Files.newBufferedReader(Paths.get(puzzleImport))) {
+                    System.out.println("Imported " + library.importText(reader) + " puzzles from " + puzzleImport);
+                }
+            }
+            if (puzzleGenerate > 0) {
+                System.out.println("Generated " + generatePuzzles(library, puzzleGenerate) + " new puzzles");
+            }
+            if (!puzzleExport.isEmpty()) {
+                try (Writer writer = Files.newBufferedWriter(Paths.get(puzzleExport))) {
+                    library.exportText(writer);
+                }
+                System.out.println("Exported " + library.size() + " puzzles to " + puzzleExport);
+            }
+            System.out.println("Library " + puzzleLibrary + ": " + library.size() + " puzzles");
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+
+    private static int generatePuzzles(PuzzleLibrary library, int count) throws IOException {
+        PuzzleGenerator.Difficulty[] difficulties = PuzzleGenerator.Difficulty.values();
+        List<GameBoard> batch = new ArrayList<>();
+        int added = 0;
+        for (int i = 0; i < count; i++) {
+            batch.add(PuzzleGenerator.generate(difficulties[i % difficulties.length]));
+            if (batch.size() == GENERATE_BATCH || i == count - 1) {
+                added += library.addAll(batch);
+                batch.clear();
+            }
+        }
+        return added;
+    }
+
+    private static void printReplay(String file) {
+        try {
+            MatchReplay replay = MatchReplay.read(Paths.get(file));
+            System.out.println("Replay: " + replay.getName() + " (" + replay.size() + " events, "
+                    + replay.getDurationMillis() / 1000 + " s)");
+            for (int i = 0; i < replay.size(); i++) {
+                System.out.println("  " + replay.getEvent(i));
+            }
+            GameSession last = replay.stateAt(replay.size());
+            for (Map.Entry<String, Integer> entry : last.getScores().entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+            }
+            System.out.println("Status: " + last.getStatus() + (last.getWinner() != null ? ", winner " + last.getWinner() : ""));
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
 }
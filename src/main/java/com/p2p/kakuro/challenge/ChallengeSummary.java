@@ -0,0 +1,55 @@
+package com.p2p.kakuro.challenge;
+
+import com.p2p.kakuro.game.PuzzleGenerator;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class ChallengeSummary implements Serializable, Comparable<ChallengeSummary> {
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final PuzzleGenerator.Difficulty difficulty;
+    private final GameSession.Status status;
+    private final int participants;
+    private final long version;
+
+    public ChallengeSummary(String name, PuzzleGenerator.Difficulty difficulty, GameSession.Status status,
+                            int participants, long version) {
+        this.name = name;
+        this.difficulty = difficulty;
+        this.status = status;
+        this.participants = participants;
+        this.version = version;
+    }
+
+    public String getName() { return name; }
+    public PuzzleGenerator.Difficulty getDifficulty() { return difficulty; }
+    public GameSession.Status getStatus() { return status; }
+    public int getParticipants() { return participants; }
+    public long getVersion() { return version; }
+
+    @Override
+    public int compareTo(ChallengeSummary other) {
+        return name.compareToIgnoreCase(other.name);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ChallengeSummary that = (ChallengeSummary) o;
+        return participants == that.participants && version == that.version && name.equals(that.name)
+                && difficulty == that.difficulty && status == that.status;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, difficulty, status, participants, version);
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + difficulty + ", " + status + ", " + participants + " players)";
+    }
+}
@@ -0,0 +1,91 @@
+package com.p2p.kakuro.challenge;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+public class FoundCellLedger implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int MAX_FINDERS = Character.MAX_VALUE;
+
+    private final int rows;
+    private final int cols;
+    private final BitSet found;
+    private final char[] owners;
+    private final List<String> finders;
+
+    public FoundCellLedger(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.found = new BitSet(rows * cols);
+        this.owners = new char[rows * cols];
+        this.finders = new ArrayList<>();
+    }
+
+    private FoundCellLedger(FoundCellLedger other) {
+        this.rows = other.rows;
+        this.cols = other.cols;
+        this.found = (BitSet) other.found.clone();
+        this.owners = other.owners.clone();
+        this.finders = new ArrayList<>(other.finders);
+    }
+
+    public synchronized FoundCellLedger copy() {
+        return new FoundCellLedger(this);
+    }
+
+    public synchronized boolean markFound(int row, int col, String nickname) {
+        int index = indexOf(row, col);
+        if (index < 0 || found.get(index)) {
+            return false;
+        }
+
+        int finder = finders.indexOf(nickname);
+        if (finder < 0) {
+            if (finders.size() >= MAX_FINDERS) return false;
+            finders.add(nickname);
+            finder = finders.size() - 1;
+        }
+
+        found.set(index);
+        owners[index] = (char) (finder + 1);
+        return true;
+    }
+
+    public synchronized boolean isFound(int row, int col) {
+        int index = indexOf(row, col);
+        return index >= 0 && found.get(index);
+    }
+
+    public synchronized String getFinder(int row, int col) {
+        int index = indexOf(row, col);
+        if (index < 0 || !found.get(index)) {
+            return null;
+        }
+        return finders.get(owners[index] - 1);
+    }
+
+    public synchronized boolean hasRoomFor(Collection<String> players, String newcomer) {
+        int needed = finders.contains(newcomer) ? finders.size() : finders.size() + 1;
+        for (String player : players) {
+            if (!player.equals(newcomer) && !finders.contains(player)) {
+                needed++;
+            }
+        }
+        return needed <= MAX_FINDERS;
+    }
+
+    public synchronized int getFoundCount() {
+        return found.cardinality();
+    }
+
+    private int indexOf(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            return -1;
+        }
+        return row * cols + col;
+    }
+}
@@ -17,26 +17,33 @@ public class GameSession implements Serializable {
     }
 
     private final String name;
+    private final String instanceId;
     private final boolean isPublic;
     private final String ownerNickname;
     private final GameBoard masterBoard;
+    private final PuzzleGenerator.Difficulty difficulty;
     private final Map<String, GameBoard> playerBoards;
     private final Map<String, Integer> scores;
     private final Set<String> participants;
-    private final Set<String> foundCells;
+    private final Map<String, Long> lastMoves;
+    private final FoundCellLedger foundCells;
     private Status status;
     private String winner;
     private long version;
+    private long lastSequence;
 
     public GameSession(String name, boolean isPublic, String ownerNickname, PuzzleGenerator.Difficulty difficulty) {
         this.name = name;
+        this.instanceId = UUID.randomUUID().toString();
         this.isPublic = isPublic;
         this.ownerNickname = ownerNickname;
         this.masterBoard = PuzzleGenerator.generate(difficulty);
+        this.difficulty = difficulty;
         this.playerBoards = new ConcurrentHashMap<>();
         this.scores = new ConcurrentHashMap<>();
         this.participants = ConcurrentHashMap.newKeySet();
-        this.foundCells = ConcurrentHashMap.newKeySet();
+        this.lastMoves = new ConcurrentHashMap<>();
+        this.foundCells = new FoundCellLedger(masterBoard.getRows(), masterBoard.getCols());
         this.status = Status.WAITING;
         this.winner = null;
         this.version = 0;
@@ -48,29 +55,60 @@ public class GameSession implements Serializable {
 
     public GameSession(String name, boolean isPublic, String ownerNickname, GameBoard board) {
         this.name = name;
+        this.instanceId = UUID.randomUUID().toString();
         this.isPublic = isPublic;
         this.ownerNickname = ownerNickname;
         this.masterBoard = board;
+        this.difficulty = PuzzleGenerator.Difficulty.forSize(board.getRows(), board.getCols());
         this.playerBoards = new ConcurrentHashMap<>();
         this.scores = new ConcurrentHashMap<>();
         this.participants = ConcurrentHashMap.newKeySet();
-        this.foundCells = ConcurrentHashMap.newKeySet();
+        this.lastMoves = new ConcurrentHashMap<>();
+        this.foundCells = new FoundCellLedger(masterBoard.getRows(), masterBoard.getCols());
         this.status = Status.WAITING;
         this.winner = null;
         this.version = 0;
     }
 
+    private GameSession(GameSession other) {
+        this.name = other.name;
+        this.instanceId = other.instanceId;
+        this.isPublic = other.isPublic;
+        this.ownerNickname = other.ownerNickname;
+        this.masterBoard = other.masterBoard;
+        this.difficulty = other.difficulty;
+        this.playerBoards = new ConcurrentHashMap<>();
+        for (Map.Entry<String, GameBoard> entry : other.playerBoards.entrySet()) {
+            this.playerBoards.put(entry.getKey(), entry.getValue().copy());
+        }
+        this.scores = new ConcurrentHashMap<>(other.scores);
+        this.participants = ConcurrentHashMap.newKeySet();
+        this.participants.addAll(other.participants);
+        this.lastMoves = new ConcurrentHashMap<>(other.lastMoves);
+        this.foundCells = other.foundCells.copy();
+        this.status = other.status;
+        this.winner = other.winner;
+        this.version = other.version;
+        this.lastSequence = other.lastSequence;
+    }
+
     public String getName() { return name; }
+    public String getInstanceId() { return instanceId; }
     public boolean isPublic() { return isPublic; }
     public String getOwnerNickname() { return ownerNickname; }
     public Status getStatus() { return status; }
     public String getWinner() { return winner; }
     public long getVersion() { return version; }
+    public long getLastSequence() { return lastSequence; }
     public GameBoard getMasterBoard() { return masterBoard; }
+    public PuzzleGenerator.Difficulty getDifficulty() { return difficulty; }
     public Set<String> getParticipants() { return new HashSet<>(participants); }
     public int getParticipantCount() { return participants.size(); }
     public Map<String, Integer> getScores() { return new HashMap<>(scores); }
     public int getScore(String nickname) { return scores.getOrDefault(nickname, 0); }
+    public long getLastMoveSequence(String nickname) { return lastMoves.getOrDefault(nickname, 0L); }
+    public boolean isCellFound(int row, int col) { return foundCells.isFound(row, col); }
+    public String getCellFinder(int row, int col) { return foundCells.getFinder(row, col); }
 
     public void incrementVersion() {
         this.version++;
@@ -78,6 +116,7 @@ public class GameSession implements Serializable {
 
     public boolean join(String nickname) {
         if (status == Status.FINISHED) return false;
+        if (!participants.contains(nickname) && !foundCells.hasRoomFor(participants, nickname)) return false;
         
         if (participants.add(nickname)) {
             playerBoards.put(nickname, masterBoard.createPlayerView());
@@ -115,12 +154,11 @@ public class GameSession implements Serializable {
         GameBoard playerBoard = playerBoards.get(nickname);
         if (playerBoard == null) return 0;
         
-        int correctValue = masterBoard.getCell(row, col).getSolution();
+        int correctValue = masterBoard.getSolution(row, col);
         int scoreChange = 0;
         
         if (number == correctValue) {
-            String cellKey = row + "," + col + "," + number;
-            if (foundCells.add(cellKey)) {
+            if (foundCells.markFound(row, col, nickname)) {
                 scoreChange = 1;
             }
             playerBoard.placeNumber(row, col, number);
@@ -138,6 +176,56 @@ public class GameSession implements Serializable {
         return scoreChange;
     }
 
+    public int previewPlace(String nickname, int row, int col, int number) {
+        if (status != Status.RUNNING || !participants.contains(nickname)) return 0;
+        return number == masterBoard.getSolution(row, col) && !foundCells.isFound(row, col) ? 1 : 0;
+    }
+
+    public int apply(SessionEvent event) {
+        int outcome;
+        switch (event.getType()) {
+            case JOIN:
+                outcome = join(event.getPlayer()) ? 1 : 0;
+                break;
+            case LEAVE:
+                outcome = leave(event.getPlayer()) ? 1 : 0;
+                break;
+            case START:
+                outcome = start(event.getPlayer()) ? 1 : 0;
+                break;
+            case PLACE:
+                outcome = isDuplicateMove(event) ? 0
+                        : placeNumber(event.getPlayer(), event.getRow(), event.getCol(), event.getValue());
+                break;
+            default:
+                outcome = 0;
+        }
+        if (event.getType() == SessionEvent.Type.PLACE) {
+            recordMove(event);
+        }
+        lastSequence = event.getSequence();
+        return outcome;
+    }
+
+    public boolean isDuplicateMove(SessionEvent event) {
+        return event.getType() == SessionEvent.Type.PLACE && event.getMoveSequence() > 0
+                && event.getMoveSequence() <= getLastMoveSequence(event.getPlayer());
+    }
+
+    private void recordMove(SessionEvent event) {
+        if (event.getMoveSequence() > 0) {
+            lastMoves.merge(event.getPlayer(), event.getMoveSequence(), Math::max);
+        }
+    }
+
+    public GameSession copy() {
+        return new GameSession(this);
+    }
+
+    public ChallengeSummary toSummary() {
+        return new ChallengeSummary(name, difficulty, status, participants.size(), version);
+    }
+
     public GameBoard getPlayerBoard(String nickname) {
         return playerBoards.get(nickname);
     }
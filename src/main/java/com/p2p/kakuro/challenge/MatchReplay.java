@@ -0,0 +1,217 @@
+package com.p2p.kakuro.challenge;
+
+import com.p2p.kakuro.game.GameBoard;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class MatchReplay {
+
+    static final int MAGIC = 0x4B52504C;
+    static final short VERSION = 1;
+    static final byte TAG_PLAYER = 1;
+    static final byte TAG_EVENT = 2;
+    static final byte TAG_RESYNC = 3;
+
+    public static final String EXTENSION = ".kreplay";
+    public static final int KEYFRAME_INTERVAL = 32;
+
+    private static final int MAX_STATE_BYTES = 1 << 20;
+    private static final ObjectInputFilter STATE_FILTER = ObjectInputFilter.Config.createFilter(
+            "maxdepth=20;maxarray=" + MAX_STATE_BYTES + ";com.p2p.kakuro.**;java.util.**;java.lang.*;!*");
+
+    private final String name;
+    private final long startedAt;
+    private final List<SessionEvent> events;
+    private int[] keyframePositions;
+    private GameSession[] keyframes;
+    private int keyframeCount;
+
+    private MatchReplay(String name, long startedAt) {
+        this.name = name;
+        this.startedAt = startedAt;
+        this.events = new ArrayList<>();
+        this.keyframePositions = new int[8];
+        this.keyframes = new GameSession[8];
+    }
+
+    public static MatchReplay read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return read(in, file);
+        } catch (RuntimeException e) {
+            throw corrupt(file, e.toString());
+        }
+    }
+
+    private static MatchReplay read(DataInputStream in, Path file) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a replay file: " + file);
+        }
+        short version = in.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+
+        MatchReplay replay = new MatchReplay(in.readUTF(), in.readLong());
+        GameSession state = readState(in, file);
+        replay.addKeyframe(0, state.copy());
+
+        SessionEvent.Type[] types = SessionEvent.Type.values();
+        List<String> players = new ArrayList<>();
+        long sequence = state.getLastSequence();
+        long timestamp = replay.startedAt;
+
+        while (true) {
+            int tag;
+            try {
+                tag = in.readByte();
+            } catch (EOFException e) {
+                break;
+            }
+
+            try {
+                if (tag == TAG_PLAYER) {
+                    players.add(in.readUTF());
+                } else if (tag == TAG_EVENT) {
+                    int typeIndex = in.readUnsignedByte();
+                    if (typeIndex >= types.length) {
+                        throw corrupt(file, "unknown event type " + typeIndex);
+                    }
+                    long playerIndex = readVarLong(in, file);
+                    if (playerIndex >= players.size()) {
+                        throw corrupt(file, "unknown player " + playerIndex);
+                    }
+                    SessionEvent.Type type = types[typeIndex];
+                    String player = players.get((int) playerIndex);
+                    int row = in.readByte();
+                    int col = in.readByte();
+                    int value = in.readByte();
+                    if (type == SessionEvent.Type.PLACE
+                            && (!state.getMasterBoard().isPlayable(row, col) || value < 1 || value > 9)) {
+                        throw corrupt(file, "invalid move " + row + "," + col + "=" + value);
+                    }
+                    sequence += readVarLong(in, file);
+                    timestamp += readVarLong(in, file);
+
+                    SessionEvent event = SessionEvent.of(sequence, type, player, row, col, value, timestamp);
+                    state.apply(event);
+                    replay.events.add(event);
+                    if (replay.events.size() % KEYFRAME_INTERVAL == 0) {
+                        replay.addKeyframe(replay.events.size(), state.copy());
+                    }
+                } else if (tag == TAG_RESYNC) {
+                    state = readState(in, file);
+                    sequence = state.getLastSequence();
+                    replay.addKeyframe(replay.events.size(), state.copy());
+                } else {
+                    throw corrupt(file, "unknown record " + tag);
+                }
+            } catch (EOFException e) {
+                break;
+            }
+        }
+        return replay;
+    }
+
+    public String getName() { return name; }
+    public long getStartedAt() { return startedAt; }
+    public int size() { return events.size(); }
+    public SessionEvent getEvent(int index) { return events.get(index); }
+    public List<SessionEvent> getEvents() { return Collections.unmodifiableList(events); }
+
+    public long getDurationMillis() {
+        return events.isEmpty() ? 0 : events.get(events.size() - 1).getTimestamp() - startedAt;
+    }
+
+    public GameSession stateAt(int position) {
+        int target = Math.max(0, Math.min(position, events.size()));
+        int slot = Arrays.binarySearch(keyframePositions, 0, keyframeCount, target);
+        if (slot < 0) {
+            slot = -slot - 2;
+        }
+
+        GameSession state = keyframes[slot].copy();
+        for (int i = keyframePositions[slot]; i < target; i++) {
+            state.apply(events.get(i));
+        }
+        return state;
+    }
+
+    public static GameBoard foundCellsBoard(GameSession state) {
+        GameBoard master = state.getMasterBoard();
+        GameBoard board = master.createPlayerView();
+        for (int i = 0; i < board.getRows(); i++) {
+            for (int j = 0; j < board.getCols(); j++) {
+                if (state.isCellFound(i, j)) {
+                    board.placeNumber(i, j, master.getSolution(i, j));
+                }
+            }
+        }
+        return board;
+    }
+
+    private void addKeyframe(int position, GameSession state) {
+        if (keyframeCount > 0 && keyframePositions[keyframeCount - 1] == position) {
+            keyframes[keyframeCount - 1] = state;
+            return;
+        }
+        if (keyframeCount == keyframePositions.length) {
+            keyframePositions = Arrays.copyOf(keyframePositions, keyframeCount * 2);
+            keyframes = Arrays.copyOf(keyframes, keyframeCount * 2);
+        }
+        keyframePositions[keyframeCount] = position;
+        keyframes[keyframeCount] = state;
+        keyframeCount++;
+    }
+
+    private static GameSession readState(DataInputStream in, Path file) throws IOException {
+        int length = in.readInt();
+        if (length <= 0 || length > MAX_STATE_BYTES) {
+            throw corrupt(file, "state of " + length + " bytes");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+
+        Object state;
+        try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            objects.setObjectInputFilter(STATE_FILTER);
+            state = objects.readObject();
+        } catch (ClassNotFoundException | IOException e) {
+            throw corrupt(file, "unreadable state (" + e.getMessage() + ")");
+        }
+        if (!(state instanceof GameSession)) {
+            throw corrupt(file, "state is not a game session");
+        }
+        return (GameSession) state;
+    }
+
+    private static IOException corrupt(Path file, String reason) {
+        return new IOException("Corrupt replay " + file + ": " + reason);
+    }
+
+    private static long readVarLong(DataInputStream in, Path file) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (shift > 63) {
+                throw corrupt(file, "varint too long");
+            }
+            b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,52 @@
+package com.p2p.kakuro.challenge;
+
+import com.p2p.kakuro.game.PuzzleGenerator;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.UUID;
+
+public class MatchTicket implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final Comparator<MatchTicket> QUEUE_ORDER = Comparator
+            .comparingLong(MatchTicket::getEnqueuedAt)
+            .thenComparing(MatchTicket::getId);
+
+    private final String id;
+    private final PlayerInfo player;
+    private final PuzzleGenerator.Difficulty difficulty;
+    private final int groupSize;
+    private final long enqueuedAt;
+
+    public MatchTicket(PlayerInfo player, PuzzleGenerator.Difficulty difficulty, int groupSize) {
+        this.id = UUID.randomUUID().toString();
+        this.player = player;
+        this.difficulty = difficulty;
+        this.groupSize = groupSize;
+        this.enqueuedAt = System.currentTimeMillis();
+    }
+
+    public String getId() { return id; }
+    public PlayerInfo getPlayer() { return player; }
+    public PuzzleGenerator.Difficulty getDifficulty() { return difficulty; }
+    public int getGroupSize() { return groupSize; }
+    public long getEnqueuedAt() { return enqueuedAt; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return id.equals(((MatchTicket) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return player.getNickname() + " (" + difficulty + ", " + groupSize + " players)";
+    }
+}
@@ -1,5 +1,7 @@
 package com.p2p.kakuro.challenge;
 
+import net.tomp2p.peers.Number160;
+
 import java.io.Serializable;
 import java.net.InetAddress;
 import java.util.Objects;
@@ -8,14 +10,20 @@ public class PlayerInfo implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private final String nickname;
+    private final Number160 peerId;
     private final InetAddress address;
     private final int port;
 
     public PlayerInfo(String nickname, InetAddress address, int port) {
+        this(nickname, null, address, port);
+    }
+
+    public PlayerInfo(String nickname, Number160 peerId, InetAddress address, int port) {
         if (nickname == null || nickname.trim().isEmpty()) {
             throw new IllegalArgumentException("Nickname cannot be null or empty");
         }
         this.nickname = nickname.trim();
+        this.peerId = peerId;
         this.address = address;
         this.port = port;
     }
@@ -24,6 +32,10 @@ public class PlayerInfo implements Serializable {
         return nickname;
     }
 
+    public Number160 getPeerId() {
+        return peerId;
+    }
+
     public InetAddress getAddress() {
         return address;
     }
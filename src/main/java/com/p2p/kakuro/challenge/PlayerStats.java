@@ -0,0 +1,51 @@
+package com.p2p.kakuro.challenge;
+
+import java.io.Serializable;
+import java.util.Comparator;
+
+public class PlayerStats implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final Comparator<PlayerStats> RANKING = Comparator
+            .comparingInt(PlayerStats::getWins).reversed()
+            .thenComparing(Comparator.comparingInt(PlayerStats::getCellsFound).reversed())
+            .thenComparingInt(PlayerStats::getGamesPlayed)
+            .thenComparing(PlayerStats::getNickname, String.CASE_INSENSITIVE_ORDER);
+
+    private final String nickname;
+    private final int wins;
+    private final int cellsFound;
+    private final int gamesPlayed;
+    private final long version;
+    private final long updatedAt;
+
+    public PlayerStats(String nickname, int wins, int cellsFound, int gamesPlayed, long version, long updatedAt) {
+        this.nickname = nickname;
+        this.wins = wins;
+        this.cellsFound = cellsFound;
+        this.gamesPlayed = gamesPlayed;
+        this.version = version;
+        this.updatedAt = updatedAt;
+    }
+
+    public static PlayerStats empty(String nickname) {
+        return new PlayerStats(nickname, 0, 0, 0, 0, 0);
+    }
+
+    public PlayerStats plus(int wins, int cellsFound, int gamesPlayed) {
+        return new PlayerStats(nickname, this.wins + wins, this.cellsFound + cellsFound,
+                this.gamesPlayed + gamesPlayed, version + 1, System.currentTimeMillis());
+    }
+
+    public String getNickname() { return nickname; }
+    public int getWins() { return wins; }
+    public int getCellsFound() { return cellsFound; }
+    public int getGamesPlayed() { return gamesPlayed; }
+    public long getVersion() { return version; }
+    public long getUpdatedAt() { return updatedAt; }
+
+    @Override
+    public String toString() {
+        return nickname + " (" + wins + " wins, " + cellsFound + " cells, " + gamesPlayed + " games)";
+    }
+}
@@ -0,0 +1,124 @@
+package com.p2p.kakuro.challenge;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ReplayRecorder implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplayRecorder.class);
+
+    private final Path file;
+    private final DataOutputStream out;
+    private final Map<String, Integer> players;
+    private long lastSequence;
+    private long lastTimestamp;
+    private boolean closed;
+
+    private ReplayRecorder(Path file, GameSession initial) throws IOException {
+        this.file = file;
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        this.players = new HashMap<>();
+        this.lastSequence = initial.getLastSequence();
+        this.lastTimestamp = System.currentTimeMillis();
+
+        out.writeInt(MatchReplay.MAGIC);
+        out.writeShort(MatchReplay.VERSION);
+        out.writeUTF(initial.getName());
+        out.writeLong(lastTimestamp);
+        writeState(initial);
+        out.flush();
+    }
+
+    public static ReplayRecorder start(Path directory, GameSession initial) throws IOException {
+        Files.createDirectories(directory);
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        String safeName = initial.getName().replaceAll("[^A-Za-z0-9_-]", "_");
+        return new ReplayRecorder(directory.resolve(safeName + "-" + stamp + MatchReplay.EXTENSION), initial);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public synchronized void record(SessionEvent event) {
+        if (closed) return;
+        try {
+            Integer player = players.get(event.getPlayer());
+            if (player == null) {
+                player = players.size();
+                players.put(event.getPlayer(), player);
+                out.writeByte(MatchReplay.TAG_PLAYER);
+                out.writeUTF(event.getPlayer());
+            }
+
+            out.writeByte(MatchReplay.TAG_EVENT);
+            out.writeByte(event.getType().ordinal());
+            writeVarLong(player);
+            out.writeByte(event.getRow());
+            out.writeByte(event.getCol());
+            out.writeByte(event.getValue());
+            writeVarLong(event.getSequence() - lastSequence);
+            writeVarLong(Math.max(0, event.getTimestamp() - lastTimestamp));
+            out.flush();
+
+            lastSequence = event.getSequence();
+            lastTimestamp = Math.max(lastTimestamp, event.getTimestamp());
+        } catch (IOException e) {
+            logger.warn("Replay recording of {} stopped: {}", file, e.getMessage());
+            close();
+        }
+    }
+
+    public synchronized void resync(GameSession state) {
+        if (closed) return;
+        try {
+            out.writeByte(MatchReplay.TAG_RESYNC);
+            writeState(state);
+            out.flush();
+            lastSequence = state.getLastSequence();
+        } catch (IOException e) {
+            logger.warn("Replay recording of {} stopped: {}", file, e.getMessage());
+            close();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close replay {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void writeState(GameSession state) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+            objects.writeObject(state.copy());
+        }
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
@@ -0,0 +1,77 @@
+package com.p2p.kakuro.challenge;
+
+import java.io.Serializable;
+
+public class SessionEvent implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Type {
+        JOIN,
+        LEAVE,
+        START,
+        PLACE
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final String player;
+    private final byte row;
+    private final byte col;
+    private final byte value;
+    private final long timestamp;
+    private final long moveSequence;
+
+    private SessionEvent(long sequence, Type type, String player, int row, int col, int value, long timestamp) {
+        this(sequence, type, player, row, col, value, timestamp, 0);
+    }
+
+    private SessionEvent(long sequence, Type type, String player, int row, int col, int value, long timestamp,
+                         long moveSequence) {
+        this.sequence = sequence;
+        this.type = type;
+        this.player = player;
+        this.row = (byte) row;
+        this.col = (byte) col;
+        this.value = (byte) value;
+        this.timestamp = timestamp;
+        this.moveSequence = moveSequence;
+    }
+
+    public static SessionEvent of(long sequence, Type type, String player, int row, int col, int value, long timestamp) {
+        return new SessionEvent(sequence, type, player, row, col, value, timestamp);
+    }
+
+    public static SessionEvent join(String player) {
+        return new SessionEvent(0, Type.JOIN, player, -1, -1, 0, System.currentTimeMillis());
+    }
+
+    public static SessionEvent leave(String player) {
+        return new SessionEvent(0, Type.LEAVE, player, -1, -1, 0, System.currentTimeMillis());
+    }
+
+    public static SessionEvent start(String player) {
+        return new SessionEvent(0, Type.START, player, -1, -1, 0, System.currentTimeMillis());
+    }
+
+    public static SessionEvent place(String player, int row, int col, int value, long moveSequence) {
+        return new SessionEvent(0, Type.PLACE, player, row, col, value, System.currentTimeMillis(), moveSequence);
+    }
+
+    public SessionEvent withSequence(long sequence) {
+        return new SessionEvent(sequence, type, player, row, col, value, timestamp, moveSequence);
+    }
+
+    public long getSequence() { return sequence; }
+    public Type getType() { return type; }
+    public String getPlayer() { return player; }
+    public int getRow() { return row; }
+    public int getCol() { return col; }
+    public int getValue() { return value; }
+    public long getTimestamp() { return timestamp; }
+    public long getMoveSequence() { return moveSequence; }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + type + " " + player + (type == Type.PLACE ? " (" + row + "," + col + ")=" + value : "");
+    }
+}
@@ -7,18 +7,22 @@ public class GameBoard implements Serializable {
 
     private final int rows;
     private final int cols;
-    private final BoardCell[][] grid;
+    private PuzzleLayout layout;
+    private final byte[] values;
 
     public GameBoard(int rows, int cols) {
-        this.rows = rows;
-        this.cols = cols;
-        this.grid = new BoardCell[rows][cols];
-        
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                grid[i][j] = new BoardCell();
-            }
-        }
+        this(new PuzzleLayout(rows, cols));
+    }
+
+    public GameBoard(PuzzleLayout layout) {
+        this(layout, new byte[layout.getRows() * layout.getCols()]);
+    }
+
+    private GameBoard(PuzzleLayout layout, byte[] values) {
+        this.rows = layout.getRows();
+        this.cols = layout.getCols();
+        this.layout = layout;
+        this.values = values;
     }
 
     public int getRows() {
@@ -29,40 +33,56 @@ public class GameBoard implements Serializable {
         return cols;
     }
 
+    public PuzzleLayout getLayout() {
+        return layout;
+    }
+
     public BoardCell getCell(int row, int col) {
-        if (row >= 0 && row < rows && col >= 0 && col < cols) {
-            return grid[row][col];
+        if (!layout.contains(row, col)) {
+            return null;
         }
-        return null;
+        BoardCell cell = layout.createCell(row, col);
+        cell.setValue(values[row * cols + col]);
+        return cell;
     }
 
     public void setCell(int row, int col, BoardCell cell) {
-        if (row >= 0 && row < rows && col >= 0 && col < cols) {
-            grid[row][col] = cell;
+        if (layout.contains(row, col)) {
+            layout = layout.withCell(row, col, cell);
+            values[row * cols + col] = (byte) (cell.isPlayable() ? cell.getValue() : 0);
         }
     }
 
+    public boolean isPlayable(int row, int col) {
+        return layout.contains(row, col) && layout.isPlayable(row, col);
+    }
+
+    public int getValue(int row, int col) {
+        return layout.contains(row, col) ? values[row * cols + col] : 0;
+    }
+
+    public int getSolution(int row, int col) {
+        return layout.contains(row, col) ? layout.getSolution(row, col) : 0;
+    }
+
     public boolean placeNumber(int row, int col, int number) {
-        BoardCell cell = getCell(row, col);
-        if (cell != null && cell.isPlayable() && number >= 1 && number <= 9) {
-            cell.setValue(number);
-            return cell.isCorrect();
+        if (isPlayable(row, col) && number >= 1 && number <= 9) {
+            values[row * cols + col] = (byte) number;
+            return number == layout.getSolution(row, col);
         }
         return false;
     }
 
     public void clearCell(int row, int col) {
-        BoardCell cell = getCell(row, col);
-        if (cell != null && cell.isPlayable()) {
-            cell.setValue(0);
+        if (isPlayable(row, col)) {
+            values[row * cols + col] = 0;
         }
     }
 
     public boolean isComplete() {
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
-                BoardCell cell = grid[i][j];
-                if (cell.isPlayable() && !cell.isCorrect()) {
+                if (layout.isPlayable(i, j) && values[i * cols + j] != layout.getSolution(i, j)) {
                     return false;
                 }
             }
@@ -74,7 +94,7 @@ public class GameBoard implements Serializable {
         int count = 0;
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
-                if (grid[i][j].isEmpty()) {
+                if (layout.isPlayable(i, j) && values[i * cols + j] == 0) {
                     count++;
                 }
             }
@@ -86,7 +106,7 @@ public class GameBoard implements Serializable {
         int count = 0;
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
-                if (grid[i][j].isPlayable()) {
+                if (layout.isPlayable(i, j)) {
                     count++;
                 }
             }
@@ -95,29 +115,10 @@ public class GameBoard implements Serializable {
     }
 
     public GameBoard copy() {
-        GameBoard copy = new GameBoard(rows, cols);
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                copy.grid[i][j] = grid[i][j].copyForView();
-            }
-        }
-        return copy;
+        return new GameBoard(layout, values.clone());
     }
 
     public GameBoard createPlayerView() {
-        GameBoard view = new GameBoard(rows, cols);
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                BoardCell original = grid[i][j];
-                if (original.isPlayable()) {
-                    view.grid[i][j] = new BoardCell(original.getSolution(), true);
-                } else if (original.isClue()) {
-                    view.grid[i][j] = new BoardCell(original.getHorizontalClue(), original.getVerticalClue());
-                } else {
-                    view.grid[i][j] = new BoardCell();
-                }
-            }
-        }
-        return view;
+        return new GameBoard(layout);
     }
 }
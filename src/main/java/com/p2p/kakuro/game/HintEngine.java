@@ -0,0 +1,294 @@
+package com.p2p.kakuro.game;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HintEngine {
+
+    public enum Technique {
+        NAKED_SINGLE,
+        HIDDEN_SINGLE
+    }
+
+    public static class Hint {
+        private final int row;
+        private final int col;
+        private final int value;
+        private final Technique technique;
+
+        public Hint(int row, int col, int value, Technique technique) {
+            this.row = row;
+            this.col = col;
+            this.value = value;
+            this.technique = technique;
+        }
+
+        public int getRow() { return row; }
+        public int getCol() { return col; }
+        public int getValue() { return value; }
+        public Technique getTechnique() { return technique; }
+
+        @Override
+        public String toString() {
+            return "Hint{" + row + "," + col + "=" + value + ", " + technique + "}";
+        }
+    }
+
+    private static final int ALL_DIGITS = 0x3FE;
+    private static final int[][][] COMBOS = buildCombos();
+
+    private final PuzzleLayout layout;
+    private final int cols;
+    private final int[] runSums;
+    private final int[][] runCells;
+    private final int[] horizontalRun;
+    private final int[] verticalRun;
+    private final int[] candidates;
+    private final int[] values;
+    private final Technique[] reasons;
+    private final boolean[] queued;
+    private final ArrayDeque<Integer> dirtyRuns;
+
+    public HintEngine(PuzzleLayout layout) {
+        this.layout = layout;
+        this.cols = layout.getCols();
+
+        int size = layout.getRows() * cols;
+        this.horizontalRun = new int[size];
+        this.verticalRun = new int[size];
+        this.candidates = new int[size];
+        this.values = new int[size];
+        this.reasons = new Technique[size];
+
+        List<Integer> sums = new ArrayList<>();
+        List<int[]> cells = new ArrayList<>();
+        collectRuns(sums, cells);
+
+        this.runSums = new int[sums.size()];
+        this.runCells = cells.toArray(new int[0][]);
+        for (int r = 0; r < runSums.length; r++) {
+            runSums[r] = sums.get(r);
+        }
+
+        this.queued = new boolean[runSums.length];
+        this.dirtyRuns = new ArrayDeque<>();
+        reset();
+    }
+
+    public PuzzleLayout getLayout() {
+        return layout;
+    }
+
+    public boolean matches(GameBoard board) {
+        return board != null && layout.equals(board.getLayout());
+    }
+
+    public Hint nextHint(GameBoard board) {
+        if (!matches(board)) {
+            throw new IllegalArgumentException("Board does not share this engine's layout");
+        }
+        sync(board);
+        propagate();
+
+        for (int i = 0; i < candidates.length; i++) {
+            if (values[i] == 0 && Integer.bitCount(candidates[i]) == 1) {
+                Technique technique = reasons[i] != null ? reasons[i] : Technique.NAKED_SINGLE;
+                return new Hint(i / cols, i % cols, Integer.numberOfTrailingZeros(candidates[i]), technique);
+            }
+        }
+        return null;
+    }
+
+    public int getCandidates(int row, int col) {
+        return candidates[row * cols + col];
+    }
+
+    public void placeValue(int row, int col, int value) {
+        int index = row * cols + col;
+        if (!layout.isPlayable(row, col) || value < 1 || value > 9) {
+            return;
+        }
+        values[index] = value;
+        candidates[index] = 1 << value;
+        markDirty(horizontalRun[index]);
+        markDirty(verticalRun[index]);
+    }
+
+    public void reset() {
+        dirtyRuns.clear();
+        for (int i = 0; i < candidates.length; i++) {
+            values[i] = 0;
+            reasons[i] = null;
+            candidates[i] = layout.isPlayable(i / cols, i % cols) ? ALL_DIGITS : 0;
+        }
+        for (int r = 0; r < runSums.length; r++) {
+            queued[r] = false;
+            markDirty(r);
+        }
+    }
+
+    private void sync(GameBoard board) {
+        for (int i = 0; i < values.length; i++) {
+            int value = board.getValue(i / cols, i % cols);
+            if (value != values[i] && values[i] != 0) {
+                reset();
+                break;
+            }
+        }
+        for (int i = 0; i < values.length; i++) {
+            int value = board.getValue(i / cols, i % cols);
+            if (value != 0 && values[i] == 0) {
+                placeValue(i / cols, i % cols, value);
+            }
+        }
+    }
+
+    private void propagate() {
+        while (!dirtyRuns.isEmpty()) {
+            int run = dirtyRuns.poll();
+            queued[run] = false;
+            reduceRun(run);
+        }
+    }
+
+    private void reduceRun(int run) {
+        int[] cells = runCells[run];
+        int placed = 0;
+        for (int cell : cells) {
+            if (values[cell] != 0) placed |= 1 << values[cell];
+        }
+
+        int allowed = 0;
+        int required = ALL_DIGITS;
+        for (int combo : COMBOS[cells.length][runSums[run]]) {
+            if ((combo & placed) != placed) continue;
+            int remaining = combo & ~placed;
+            boolean fits = true;
+            for (int cell : cells) {
+                if (values[cell] == 0 && (candidates[cell] & remaining) == 0) {
+                    fits = false;
+                    break;
+                }
+            }
+            if (fits) {
+                allowed |= remaining;
+                required &= remaining;
+            }
+        }
+        if (allowed == 0) {
+            return;
+        }
+
+        for (int cell : cells) {
+            if (values[cell] == 0) {
+                restrict(cell, candidates[cell] & allowed, Technique.NAKED_SINGLE);
+            }
+        }
+
+        for (int digit = 1; digit <= 9; digit++) {
+            int bit = 1 << digit;
+            if ((required & bit) == 0) continue;
+            int holder = -1;
+            int holders = 0;
+            for (int cell : cells) {
+                if (values[cell] == 0 && (candidates[cell] & bit) != 0) {
+                    holder = cell;
+                    holders++;
+                }
+            }
+            if (holders == 1) {
+                restrict(holder, bit, Technique.HIDDEN_SINGLE);
+            }
+        }
+    }
+
+    private void restrict(int cell, int mask, Technique technique) {
+        if (mask == candidates[cell] || mask == 0) {
+            return;
+        }
+        candidates[cell] = mask;
+        if (Integer.bitCount(mask) == 1 && reasons[cell] == null) {
+            reasons[cell] = technique;
+        }
+        markDirty(horizontalRun[cell]);
+        markDirty(verticalRun[cell]);
+    }
+
+    private void markDirty(int run) {
+        if (run >= 0 && !queued[run]) {
+            queued[run] = true;
+            dirtyRuns.add(run);
+        }
+    }
+
+    private void collectRuns(List<Integer> sums, List<int[]> cells) {
+        int rows = layout.getRows();
+        for (int i = 0; i < horizontalRun.length; i++) {
+            horizontalRun[i] = -1;
+            verticalRun[i] = -1;
+        }
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if (layout.getType(i, j) != BoardCell.CellType.CLUE) continue;
+
+                int hClue = layout.getHorizontalClue(i, j);
+                if (hClue > 0) {
+                    int end = j + 1;
+                    while (end < cols && layout.isPlayable(i, end)) end++;
+                    addRun(sums, cells, hClue, i, j + 1, 0, 1, end - j - 1, horizontalRun);
+                }
+
+                int vClue = layout.getVerticalClue(i, j);
+                if (vClue > 0) {
+                    int end = i + 1;
+                    while (end < rows && layout.isPlayable(end, j)) end++;
+                    addRun(sums, cells, vClue, i + 1, j, 1, 0, end - i - 1, verticalRun);
+                }
+            }
+        }
+    }
+
+    private void addRun(List<Integer> sums, List<int[]> cells, int sum, int row, int col,
+                        int dRow, int dCol, int length, int[] runIndex) {
+        if (length < 1 || length > 9 || sum > 45) return;
+
+        int run = sums.size();
+        int[] members = new int[length];
+        for (int k = 0; k < length; k++) {
+            members[k] = (row + k * dRow) * cols + (col + k * dCol);
+            runIndex[members[k]] = run;
+        }
+        sums.add(sum);
+        cells.add(members);
+    }
+
+    private static int[][][] buildCombos() {
+        List<List<List<Integer>>> byLength = new ArrayList<>();
+        for (int len = 0; len <= 9; len++) {
+            List<List<Integer>> bySum = new ArrayList<>();
+            for (int sum = 0; sum <= 45; sum++) bySum.add(new ArrayList<>());
+            byLength.add(bySum);
+        }
+
+        for (int subset = 1; subset < 512; subset++) {
+            int mask = subset << 1;
+            int sum = 0;
+            for (int digit = 1; digit <= 9; digit++) {
+                if ((mask & (1 << digit)) != 0) sum += digit;
+            }
+            byLength.get(Integer.bitCount(mask)).get(sum).add(mask);
+        }
+
+        int[][][] combos = new int[10][46][];
+        for (int len = 0; len <= 9; len++) {
+            for (int sum = 0; sum <= 45; sum++) {
+                List<Integer> masks = byLength.get(len).get(sum);
+                combos[len][sum] = new int[masks.size()];
+                for (int k = 0; k < masks.size(); k++) combos[len][sum][k] = masks.get(k);
+            }
+        }
+        return combos;
+    }
+}
@@ -0,0 +1,186 @@
+package com.p2p.kakuro.game;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+public final class LayoutGenerator {
+
+    public static final int MIN_RUN = 2;
+    public static final int MAX_RUN = 9;
+
+    private static final int MAX_ATTEMPTS = 1000;
+    private static final int MAX_REPAIR_PASSES = 20;
+    private static final double MIN_DENSITY = 0.20;
+    private static final double MAX_DENSITY = 0.35;
+
+    private LayoutGenerator() {
+    }
+
+    public static boolean[][] generate(int rows, int cols, Random random) {
+        if (rows < 3 || cols < 3) {
+            throw new IllegalArgumentException("Board must be at least 3x3");
+        }
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            boolean[][] mask = randomMask(rows, cols, random);
+            if (repair(mask, rows, cols, random) && isValid(mask)) {
+                return mask;
+            }
+        }
+        throw new IllegalStateException("Unable to generate a valid " + rows + "x" + cols + " layout");
+    }
+
+    public static boolean isValid(boolean[][] mask) {
+        int rows = mask.length;
+        int cols = mask[0].length;
+
+        for (int i = 0; i < rows; i++) {
+            if (mask[i][0]) return false;
+        }
+        for (int j = 0; j < cols; j++) {
+            if (mask[0][j]) return false;
+        }
+
+        for (int i = 1; i < rows; i++) {
+            for (int j = 1; j < cols; j++) {
+                if (mask[i][j] != mask[rows - i][cols - j]) return false;
+            }
+        }
+
+        return runsInRange(mask, rows, cols) && isConnected(mask, rows, cols);
+    }
+
+    private static boolean[][] randomMask(int rows, int cols, Random random) {
+        boolean[][] mask = new boolean[rows][cols];
+        for (int i = 1; i < rows; i++) {
+            for (int j = 1; j < cols; j++) {
+                mask[i][j] = true;
+            }
+        }
+
+        int interior = (rows - 1) * (cols - 1);
+        double density = MIN_DENSITY + random.nextDouble() * (MAX_DENSITY - MIN_DENSITY);
+        int blacks = (int) (interior * density / 2);
+        for (int k = 0; k < blacks; k++) {
+            setBlack(mask, rows, cols, 1 + random.nextInt(rows - 1), 1 + random.nextInt(cols - 1));
+        }
+        return mask;
+    }
+
+    private static boolean repair(boolean[][] mask, int rows, int cols, Random random) {
+        for (int pass = 0; pass < MAX_REPAIR_PASSES; pass++) {
+            boolean changed = false;
+
+            for (int i = 1; i < rows; i++) {
+                int start = -1;
+                for (int j = 1; j <= cols; j++) {
+                    if (j < cols && mask[i][j]) {
+                        if (start == -1) start = j;
+                    } else if (start != -1) {
+                        changed |= fixRun(mask, rows, cols, i, start, 0, 1, j - start, random);
+                        start = -1;
+                    }
+                }
+            }
+
+            for (int j = 1; j < cols; j++) {
+                int start = -1;
+                for (int i = 1; i <= rows; i++) {
+                    if (i < rows && mask[i][j]) {
+                        if (start == -1) start = i;
+                    } else if (start != -1) {
+                        changed |= fixRun(mask, rows, cols, start, j, 1, 0, i - start, random);
+                        start = -1;
+                    }
+                }
+            }
+
+            if (!changed) return true;
+        }
+        return false;
+    }
+
+    private static boolean fixRun(boolean[][] mask, int rows, int cols, int row, int col,
+                                  int dRow, int dCol, int length, Random random) {
+        if (length < MIN_RUN) {
+            setBlack(mask, rows, cols, row, col);
+            return true;
+        }
+        if (length > MAX_RUN) {
+            int offset = MIN_RUN + random.nextInt(length - 2 * MIN_RUN);
+            setBlack(mask, rows, cols, row + offset * dRow, col + offset * dCol);
+            return true;
+        }
+        return false;
+    }
+
+    private static void setBlack(boolean[][] mask, int rows, int cols, int row, int col) {
+        mask[row][col] = false;
+        mask[rows - row][cols - col] = false;
+    }
+
+    private static boolean runsInRange(boolean[][] mask, int rows, int cols) {
+        for (int i = 0; i < rows; i++) {
+            int length = 0;
+            for (int j = 0; j <= cols; j++) {
+                if (j < cols && mask[i][j]) {
+                    length++;
+                } else {
+                    if (length != 0 && (length < MIN_RUN || length > MAX_RUN)) return false;
+                    length = 0;
+                }
+            }
+        }
+        for (int j = 0; j < cols; j++) {
+            int length = 0;
+            for (int i = 0; i <= rows; i++) {
+                if (i < rows && mask[i][j]) {
+                    length++;
+                } else {
+                    if (length != 0 && (length < MIN_RUN || length > MAX_RUN)) return false;
+                    length = 0;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isConnected(boolean[][] mask, int rows, int cols) {
+        int whites = 0;
+        int startRow = -1;
+        int startCol = -1;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if (mask[i][j]) {
+                    whites++;
+                    if (startRow == -1) {
+                        startRow = i;
+                        startCol = j;
+                    }
+                }
+            }
+        }
+        if (whites == 0) return false;
+
+        boolean[][] seen = new boolean[rows][cols];
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        queue.add(new int[]{startRow, startCol});
+        seen[startRow][startCol] = true;
+        int reached = 0;
+
+        int[][] steps = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+        while (!queue.isEmpty()) {
+            int[] cell = queue.poll();
+            reached++;
+            for (int[] step : steps) {
+                int r = cell[0] + step[0];
+                int c = cell[1] + step[1];
+                if (r >= 0 && r < rows && c >= 0 && c < cols && mask[r][c] && !seen[r][c]) {
+                    seen[r][c] = true;
+                    queue.add(new int[]{r, c});
+                }
+            }
+        }
+        return reached == whites;
+    }
+}
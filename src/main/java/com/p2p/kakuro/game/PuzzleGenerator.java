@@ -5,6 +5,8 @@ import java.util.*;
 public class PuzzleGenerator {
 
     private static final Random random = new Random();
+    private static final int MAX_LAYOUT_ATTEMPTS = 100;
+    private static final int FILL_BUDGET = 50000;
 
     public enum Difficulty {
         EASY(6, 6),
@@ -21,6 +23,13 @@ public class PuzzleGenerator {
 
         public int getRows() { return rows; }
         public int getCols() { return cols; }
+
+        public static Difficulty forSize(int rows, int cols) {
+            for (Difficulty difficulty : values()) {
+                if (difficulty.rows == rows && difficulty.cols == cols) return difficulty;
+            }
+            return null;
+        }
     }
 
     public static GameBoard generate(Difficulty difficulty) {
@@ -28,87 +37,45 @@ public class PuzzleGenerator {
     }
 
     public static GameBoard generate(int rows, int cols) {
-        GameBoard board = new GameBoard(rows, cols);
-        createPattern(board, rows, cols);
-        return board;
+        return new GameBoard(createPattern(rows, cols));
     }
 
-    private static void createPattern(GameBoard board, int rows, int cols) {
-        int[][] solutions = new int[rows][cols];
-        boolean[][] isPlayable = new boolean[rows][cols];
-        
-        for (int i = 1; i < rows; i++) {
-            for (int j = 1; j < cols; j++) {
-                if ((i + j) % 3 != 0) {
-                    isPlayable[i][j] = true;
-                }
+    private static PuzzleLayout createPattern(int rows, int cols) {
+        for (int attempt = 0; attempt < MAX_LAYOUT_ATTEMPTS; attempt++) {
+            boolean[][] isPlayable = LayoutGenerator.generate(rows, cols, random);
+            int[][] solutions = new int[rows][cols];
+            
+            if (fillSolutions(solutions, isPlayable, rows, cols)) {
+                return createLayout(solutions, isPlayable, rows, cols);
             }
         }
-        
-        ensureValidRuns(isPlayable, rows, cols);
-        fillSolutions(solutions, isPlayable, rows, cols);
+        throw new IllegalStateException("Unable to generate a " + rows + "x" + cols + " puzzle");
+    }
+
+    private static PuzzleLayout createLayout(int[][] solutions, boolean[][] isPlayable, int rows, int cols) {
+        PuzzleLayout layout = new PuzzleLayout(rows, cols);
         
         for (int i = 1; i < rows; i++) {
             for (int j = 1; j < cols; j++) {
                 if (isPlayable[i][j]) {
-                    board.setCell(i, j, new BoardCell(solutions[i][j], true));
-                }
-            }
-        }
-        
-        createClues(board, solutions, isPlayable, rows, cols);
-    }
-
-    private static void ensureValidRuns(boolean[][] isPlayable, int rows, int cols) {
-        for (int i = 1; i < rows; i++) {
-            int runStart = -1;
-            for (int j = 1; j <= cols; j++) {
-                if (j < cols && isPlayable[i][j]) {
-                    if (runStart == -1) runStart = j;
-                } else {
-                    if (runStart != -1) {
-                        int runLength = j - runStart;
-                        if (runLength == 1) {
-                            if (j < cols && random.nextBoolean()) {
-                                isPlayable[i][j] = true;
-                            } else {
-                                isPlayable[i][runStart] = false;
-                            }
-                        }
-                    }
-                    runStart = -1;
+                    layout.writeCell(i, j, new BoardCell(solutions[i][j], true));
                 }
             }
         }
         
-        for (int j = 1; j < cols; j++) {
-            int runStart = -1;
-            for (int i = 1; i <= rows; i++) {
-                if (i < rows && isPlayable[i][j]) {
-                    if (runStart == -1) runStart = i;
-                } else {
-                    if (runStart != -1) {
-                        int runLength = i - runStart;
-                        if (runLength == 1) {
-                            if (i < rows && random.nextBoolean()) {
-                                isPlayable[i][j] = true;
-                            } else {
-                                isPlayable[runStart][j] = false;
-                            }
-                        }
-                    }
-                    runStart = -1;
-                }
-            }
-        }
+        createClues(layout, solutions, isPlayable, rows, cols);
+        return layout;
     }
 
-    private static void fillSolutions(int[][] solutions, boolean[][] isPlayable, int rows, int cols) {
-        fillSolutionsBacktrack(solutions, isPlayable, rows, cols, 1, 1);
+    private static boolean fillSolutions(int[][] solutions, boolean[][] isPlayable, int rows, int cols) {
+        int[] budget = {FILL_BUDGET};
+        return fillSolutionsBacktrack(solutions, isPlayable, rows, cols, 1, 1, budget);
     }
 
     private static boolean fillSolutionsBacktrack(int[][] solutions, boolean[][] isPlayable, 
-                                                   int rows, int cols, int row, int col) {
+                                                   int rows, int cols, int row, int col, int[] budget) {
+        if (--budget[0] < 0) return false;
+        
         while (row < rows && (col >= cols || !isPlayable[row][col])) {
             col++;
             if (col >= cols) {
@@ -134,7 +101,7 @@ public class PuzzleGenerator {
                     nextRow++;
                 }
                 
-                if (fillSolutionsBacktrack(solutions, isPlayable, rows, cols, nextRow, nextCol)) {
+                if (fillSolutionsBacktrack(solutions, isPlayable, rows, cols, nextRow, nextCol, budget)) {
                     return true;
                 }
                 solutions[row][col] = 0;
@@ -160,7 +127,7 @@ public class PuzzleGenerator {
         return true;
     }
 
-    private static void createClues(GameBoard board, int[][] solutions, 
+    private static void createClues(PuzzleLayout layout, int[][] solutions, 
                                     boolean[][] isPlayable, int rows, int cols) {
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
@@ -184,7 +151,7 @@ public class PuzzleGenerator {
                 }
                 
                 if (hClue > 0 || vClue > 0) {
-                    board.setCell(i, j, new BoardCell(hClue, vClue));
+                    layout.writeCell(i, j, new BoardCell(hClue, vClue));
                 }
             }
         }
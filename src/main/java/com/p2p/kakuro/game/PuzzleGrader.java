@@ -0,0 +1,115 @@
+package com.p2p.kakuro.game;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class PuzzleGrader {
+
+    private static final double EASY_THRESHOLD = 1.25;
+    private static final double MEDIUM_THRESHOLD = 2.0;
+    private static final int UNRESOLVED_WEIGHT = 6;
+
+    public enum Rating {
+        EASY,
+        MEDIUM,
+        HARD;
+
+        public static Rating of(PuzzleGenerator.Difficulty difficulty) {
+            switch (difficulty) {
+                case EASY: return EASY;
+                case MEDIUM: return MEDIUM;
+                case HARD:
+                default: return HARD;
+            }
+        }
+
+        static Rating forScore(double score) {
+            if (score <= EASY_THRESHOLD) return EASY;
+            if (score <= MEDIUM_THRESHOLD) return MEDIUM;
+            return HARD;
+        }
+    }
+
+    public static class Grade {
+        private final int playableCells;
+        private final int steps;
+        private final int unresolvedCells;
+        private final Map<HintEngine.Technique, Integer> techniqueCounts;
+        private final double score;
+        private final Rating rating;
+
+        Grade(int playableCells, int steps, int unresolvedCells,
+              Map<HintEngine.Technique, Integer> techniqueCounts, double score, Rating rating) {
+            this.playableCells = playableCells;
+            this.steps = steps;
+            this.unresolvedCells = unresolvedCells;
+            this.techniqueCounts = Collections.unmodifiableMap(techniqueCounts);
+            this.score = score;
+            this.rating = rating;
+        }
+
+        public int getPlayableCells() { return playableCells; }
+        public int getSteps() { return steps; }
+        public int getUnresolvedCells() { return unresolvedCells; }
+        public boolean isSolvedLogically() { return unresolvedCells == 0; }
+        public Map<HintEngine.Technique, Integer> getTechniqueCounts() { return techniqueCounts; }
+        public int getTechniqueCount(HintEngine.Technique technique) { return techniqueCounts.getOrDefault(technique, 0); }
+        public double getScore() { return score; }
+        public Rating getRating() { return rating; }
+
+        @Override
+        public String toString() {
+            return "Grade{" + rating + ", score=" + String.format("%.2f", score) + ", steps=" + steps
+                    + ", unresolved=" + unresolvedCells + ", " + techniqueCounts + "}";
+        }
+    }
+
+    public static Grade grade(GameBoard board) {
+        return grade(board.getLayout());
+    }
+
+    public static Grade grade(PuzzleLayout layout) {
+        GameBoard scratch = new GameBoard(layout);
+        HintEngine engine = new HintEngine(layout);
+        Map<HintEngine.Technique, Integer> counts = new EnumMap<>(HintEngine.Technique.class);
+
+        int steps = 0;
+        HintEngine.Hint hint;
+        while ((hint = engine.nextHint(scratch)) != null) {
+            scratch.placeNumber(hint.getRow(), hint.getCol(), hint.getValue());
+            counts.merge(hint.getTechnique(), 1, Integer::sum);
+            steps++;
+        }
+
+        int playable = scratch.getPlayableCellCount();
+        int unresolved = scratch.getEmptyCellCount();
+        double score = playable == 0 ? 0 : weightedEffort(counts, unresolved) / playable;
+        return new Grade(playable, steps, unresolved, counts, score, Rating.forScore(score));
+    }
+
+    public static List<Grade> gradeAll(Collection<GameBoard> boards) {
+        return boards.parallelStream()
+                .map(PuzzleGrader::grade)
+                .collect(Collectors.toList());
+    }
+
+    private static double weightedEffort(Map<HintEngine.Technique, Integer> counts, int unresolved) {
+        double effort = 0;
+        for (Map.Entry<HintEngine.Technique, Integer> entry : counts.entrySet()) {
+            effort += weight(entry.getKey()) * entry.getValue();
+        }
+        return effort + UNRESOLVED_WEIGHT * unresolved;
+    }
+
+    private static int weight(HintEngine.Technique technique) {
+        switch (technique) {
+            case HIDDEN_SINGLE: return 2;
+            case NAKED_SINGLE:
+            default: return 1;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.p2p.kakuro.game;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+public final class PuzzleLayout implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final BoardCell.CellType[] TYPES = BoardCell.CellType.values();
+
+    private final int rows;
+    private final int cols;
+    private final byte[] types;
+    private final byte[] horizontalClues;
+    private final byte[] verticalClues;
+    private final byte[] solutions;
+
+    public PuzzleLayout(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.types = new byte[rows * cols];
+        this.horizontalClues = new byte[rows * cols];
+        this.verticalClues = new byte[rows * cols];
+        this.solutions = new byte[rows * cols];
+
+        byte blocked = (byte) BoardCell.CellType.BLOCKED.ordinal();
+        for (int i = 0; i < types.length; i++) {
+            types[i] = blocked;
+            horizontalClues[i] = -1;
+            verticalClues[i] = -1;
+        }
+    }
+
+    private PuzzleLayout(PuzzleLayout other) {
+        this.rows = other.rows;
+        this.cols = other.cols;
+        this.types = other.types.clone();
+        this.horizontalClues = other.horizontalClues.clone();
+        this.verticalClues = other.verticalClues.clone();
+        this.solutions = other.solutions.clone();
+    }
+
+    public int getRows() { return rows; }
+    public int getCols() { return cols; }
+
+    public boolean contains(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    public BoardCell.CellType getType(int row, int col) {
+        return TYPES[types[row * cols + col]];
+    }
+
+    public boolean isPlayable(int row, int col) {
+        return getType(row, col) == BoardCell.CellType.PLAYABLE;
+    }
+
+    public int getHorizontalClue(int row, int col) {
+        return horizontalClues[row * cols + col];
+    }
+
+    public int getVerticalClue(int row, int col) {
+        return verticalClues[row * cols + col];
+    }
+
+    public int getSolution(int row, int col) {
+        return solutions[row * cols + col];
+    }
+
+    public BoardCell createCell(int row, int col) {
+        switch (getType(row, col)) {
+            case CLUE:
+                return new BoardCell(getHorizontalClue(row, col), getVerticalClue(row, col));
+            case PLAYABLE:
+                return new BoardCell(getSolution(row, col), true);
+            default:
+                return new BoardCell();
+        }
+    }
+
+    public PuzzleLayout withCell(int row, int col, BoardCell cell) {
+        PuzzleLayout copy = new PuzzleLayout(this);
+        copy.writeCell(row, col, cell);
+        return copy;
+    }
+
+    void writeCell(int row, int col, BoardCell cell) {
+        int index = row * cols + col;
+        types[index] = (byte) cell.getType().ordinal();
+        horizontalClues[index] = (byte) cell.getHorizontalClue();
+        verticalClues[index] = (byte) cell.getVerticalClue();
+        solutions[index] = (byte) cell.getSolution();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PuzzleLayout other = (PuzzleLayout) o;
+        return rows == other.rows && cols == other.cols
+                && Arrays.equals(types, other.types)
+                && Arrays.equals(solutions, other.solutions)
+                && Arrays.equals(horizontalClues, other.horizontalClues)
+                && Arrays.equals(verticalClues, other.verticalClues);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(types) + Arrays.hashCode(solutions);
+    }
+}
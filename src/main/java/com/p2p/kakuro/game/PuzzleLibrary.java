@@ -0,0 +1,521 @@
+package com.p2p.kakuro.game;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class PuzzleLibrary implements Closeable {
+
+    private static final String DATA_FILE = "puzzles.dat";
+    private static final String INDEX_FILE = "puzzles.idx";
+
+    private static final int MAGIC = 0x4B4B4C31;
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRY_BYTES = 32;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_SIDE = Byte.MAX_VALUE;
+    private static final int MAX_CLUE = 45;
+
+    private static final int OFFSET_POS = 0;
+    private static final int LENGTH_POS = 8;
+    private static final int ROWS_POS = 12;
+    private static final int COLS_POS = 13;
+    private static final int RATING_POS = 14;
+    private static final int HASH_POS = 16;
+
+    private static final PuzzleGrader.Rating[] RATINGS = PuzzleGrader.Rating.values();
+
+    private final FileChannel dataChannel;
+    private final FileChannel indexChannel;
+    private final Random random;
+    private final Map<Integer, IntList> bySize;
+    private final Map<Integer, IntList> bySizeAndRating;
+    private MappedByteBuffer index;
+    private int capacity;
+    private int count;
+    private int[] hashSlots;
+    private int hashMask;
+    private int hashCount;
+
+    private PuzzleLibrary(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.dataChannel = FileChannel.open(directory.resolve(DATA_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.indexChannel = FileChannel.open(directory.resolve(INDEX_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.random = new Random();
+        this.bySize = new HashMap<>();
+        this.bySizeAndRating = new HashMap<>();
+
+        long existing = indexChannel.size();
+        this.capacity = Math.max(INITIAL_CAPACITY, (int) ((existing - HEADER_BYTES) / ENTRY_BYTES));
+        mapIndex();
+
+        if (existing == 0) {
+            index.putInt(0, MAGIC);
+            index.putInt(4, 1);
+            index.putInt(8, 0);
+        } else if (index.getInt(0) != MAGIC) {
+            throw new IOException("Not a puzzle library index: " + directory.resolve(INDEX_FILE));
+        }
+
+        this.count = index.getInt(8);
+        rebuildLookups();
+    }
+
+    public static PuzzleLibrary open(Path directory) throws IOException {
+        return new PuzzleLibrary(directory);
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    public synchronized int count(int rows, int cols, PuzzleGrader.Rating rating) {
+        IntList list = rating == null ? bySize.get(sizeKey(rows, cols)) : bySizeAndRating.get(ratingKey(rows, cols, rating));
+        return list == null ? 0 : list.size;
+    }
+
+    public synchronized boolean contains(GameBoard board) throws IOException {
+        byte[] record = encode(board.getLayout());
+        return find(hash(record), record) >= 0;
+    }
+
+    public synchronized int add(GameBoard board) throws IOException {
+        return add(board, PuzzleGrader.grade(board).getRating());
+    }
+
+    public synchronized int add(GameBoard board, PuzzleGrader.Rating rating) throws IOException {
+        byte[] record = encode(board.getLayout());
+        long hash = hash(record);
+        if (find(hash, record) >= 0) {
+            return -1;
+        }
+
+        if (count == capacity) {
+            capacity *= 2;
+            mapIndex();
+        }
+
+        long offset = dataChannel.size();
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        while (buffer.hasRemaining()) {
+            dataChannel.write(buffer, offset + buffer.position());
+        }
+
+        int ordinal = count;
+        int base = entryPosition(ordinal);
+        index.putLong(base + OFFSET_POS, offset);
+        index.putInt(base + LENGTH_POS, record.length);
+        index.put(base + ROWS_POS, (byte) board.getRows());
+        index.put(base + COLS_POS, (byte) board.getCols());
+        index.put(base + RATING_POS, (byte) rating.ordinal());
+        index.putLong(base + HASH_POS, hash);
+        count++;
+        index.putInt(8, count);
+
+        register(ordinal, board.getRows(), board.getCols(), rating);
+        return ordinal;
+    }
+
+    public int addAll(Collection<GameBoard> boards) throws IOException {
+        List<GameBoard> ordered = new ArrayList<>(boards);
+        List<PuzzleGrader.Grade> grades = PuzzleGrader.gradeAll(ordered);
+
+        int added = 0;
+        synchronized (this) {
+            for (int i = 0; i < ordered.size(); i++) {
+                if (add(ordered.get(i), grades.get(i).getRating()) >= 0) {
+                    added++;
+                }
+            }
+            flush();
+        }
+        return added;
+    }
+
+    public synchronized GameBoard get(int ordinal) throws IOException {
+        checkOrdinal(ordinal);
+        return new GameBoard(decode(readRecord(ordinal)));
+    }
+
+    public synchronized PuzzleGrader.Rating getRating(int ordinal) throws IOException {
+        checkOrdinal(ordinal);
+        return ratingOf(ordinal);
+    }
+
+    public synchronized GameBoard random(int rows, int cols, PuzzleGrader.Rating rating) throws IOException {
+        IntList list = rating == null ? bySize.get(sizeKey(rows, cols)) : bySizeAndRating.get(ratingKey(rows, cols, rating));
+        if (list == null || list.size == 0) {
+            return null;
+        }
+        return get(list.values[random.nextInt(list.size)]);
+    }
+
+    public synchronized GameBoard random(PuzzleGenerator.Difficulty difficulty) throws IOException {
+        GameBoard rated = random(difficulty.getRows(), difficulty.getCols(), PuzzleGrader.Rating.of(difficulty));
+        return rated != null ? rated : random(difficulty.getRows(), difficulty.getCols(), null);
+    }
+
+    public int importText(Reader reader) throws IOException {
+        return addAll(readText(reader));
+    }
+
+    public synchronized void exportText(Writer writer) throws IOException {
+        for (int i = 0; i < count; i++) {
+            writeText(get(i), writer);
+        }
+        writer.flush();
+    }
+
+    public synchronized void flush() throws IOException {
+        index.force();
+        dataChannel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        dataChannel.close();
+        indexChannel.close();
+    }
+
+    public static void writeText(GameBoard board, Writer writer) throws IOException {
+        writer.write(board.getRows() + " " + board.getCols() + "\n");
+        for (int i = 0; i < board.getRows(); i++) {
+            StringBuilder line = new StringBuilder();
+            for (int j = 0; j < board.getCols(); j++) {
+                if (j > 0) line.append(' ');
+                BoardCell cell = board.getCell(i, j);
+                if (cell.isPlayable()) {
+                    line.append(cell.getSolution());
+                } else if (cell.isClue()) {
+                    line.append(clueText(cell.getVerticalClue())).append('\\').append(clueText(cell.getHorizontalClue()));
+                } else {
+                    line.append('#');
+                }
+            }
+            writer.write(line.append('\n').toString());
+        }
+        writer.write("\n");
+    }
+
+    public static List<GameBoard> readText(Reader reader) throws IOException {
+        BufferedReader in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        List<GameBoard> boards = new ArrayList<>();
+
+        String header;
+        while ((header = in.readLine()) != null) {
+            header = header.trim();
+            if (header.isEmpty() || header.startsWith("//")) continue;
+
+            String[] size = header.split("\\s+");
+            if (size.length != 2) {
+                throw new IOException("Invalid puzzle header: " + header);
+            }
+            int rows = parseNumber(size[0], header);
+            int cols = parseNumber(size[1], header);
+            if (rows < 2 || rows > MAX_SIDE || cols < 2 || cols > MAX_SIDE) {
+                throw new IOException("Puzzle size out of range: " + header);
+            }
+            PuzzleLayout layout = new PuzzleLayout(rows, cols);
+
+            for (int i = 0; i < rows; i++) {
+                String line = in.readLine();
+                if (line == null) {
+                    throw new IOException("Unexpected end of puzzle text");
+                }
+                String[] tokens = line.trim().split("\\s+");
+                if (tokens.length != cols) {
+                    throw new IOException("Expected " + cols + " cells in row " + i + ": " + line);
+                }
+                for (int j = 0; j < cols; j++) {
+                    layout.writeCell(i, j, parseCell(tokens[j]));
+                }
+            }
+            validate(layout);
+            boards.add(new GameBoard(layout));
+        }
+        return boards;
+    }
+
+    private static BoardCell parseCell(String token) throws IOException {
+        if (token.equals("#")) {
+            return new BoardCell();
+        }
+        int slash = token.indexOf('\\');
+        if (slash >= 0) {
+            return new BoardCell(parseClue(token.substring(slash + 1)), parseClue(token.substring(0, slash)));
+        }
+        try {
+            int solution = Integer.parseInt(token);
+            if (solution < 1 || solution > 9) {
+                throw new IOException("Solution out of range: " + token);
+            }
+            return new BoardCell(solution, true);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid cell: " + token);
+        }
+    }
+
+    private static int parseClue(String text) throws IOException {
+        if (text.equals("-")) {
+            return -1;
+        }
+        int clue = parseNumber(text, text);
+        if (clue < 1 || clue > MAX_CLUE) {
+            throw new IOException("Clue out of range: " + text);
+        }
+        return clue;
+    }
+
+    private static int parseNumber(String text, String context) throws IOException {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid number '" + text + "' in: " + context);
+        }
+    }
+
+    private static void validate(PuzzleLayout layout) throws IOException {
+        for (int i = 0; i < layout.getRows(); i++) {
+            for (int j = 0; j < layout.getCols(); j++) {
+                switch (layout.getType(i, j)) {
+                    case PLAYABLE:
+                        if (runClue(layout, i, j, 0, -1) <= 0 || runClue(layout, i, j, -1, 0) <= 0) {
+                            throw new IOException("Cell " + i + "," + j + " is not covered by a horizontal and a vertical clue");
+                        }
+                        break;
+                    case CLUE:
+                        checkRun(layout, i, j, 0, 1, layout.getHorizontalClue(i, j));
+                        checkRun(layout, i, j, 1, 0, layout.getVerticalClue(i, j));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+    }
+
+    private static int runClue(PuzzleLayout layout, int row, int col, int dRow, int dCol) {
+        while (layout.contains(row, col) && layout.isPlayable(row, col)) {
+            row += dRow;
+            col += dCol;
+        }
+        if (!layout.contains(row, col) || layout.getType(row, col) != BoardCell.CellType.CLUE) {
+            return -1;
+        }
+        return dCol != 0 ? layout.getHorizontalClue(row, col) : layout.getVerticalClue(row, col);
+    }
+
+    private static void checkRun(PuzzleLayout layout, int row, int col, int dRow, int dCol, int clue) throws IOException {
+        if (clue <= 0) return;
+
+        int sum = 0;
+        int seen = 0;
+        int length = 0;
+        for (int r = row + dRow, c = col + dCol; layout.contains(r, c) && layout.isPlayable(r, c); r += dRow, c += dCol) {
+            int bit = 1 << layout.getSolution(r, c);
+            if ((seen & bit) != 0) {
+                throw new IOException("Repeated digit in the run of clue " + row + "," + col);
+            }
+            seen |= bit;
+            sum += layout.getSolution(r, c);
+            length++;
+        }
+        if (length == 0 || sum != clue) {
+            throw new IOException("Clue " + clue + " at " + row + "," + col + " does not match its run");
+        }
+    }
+
+    private static String clueText(int clue) {
+        return clue > 0 ? String.valueOf(clue) : "-";
+    }
+
+    private static byte[] encode(PuzzleLayout layout) {
+        int rows = layout.getRows();
+        int cols = layout.getCols();
+        ByteBuffer buffer = ByteBuffer.allocate(2 + rows * cols * 3);
+        buffer.put((byte) rows).put((byte) cols);
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                BoardCell.CellType type = layout.getType(i, j);
+                buffer.put((byte) type.ordinal());
+                if (type == BoardCell.CellType.CLUE) {
+                    buffer.put((byte) layout.getHorizontalClue(i, j)).put((byte) layout.getVerticalClue(i, j));
+                } else if (type == BoardCell.CellType.PLAYABLE) {
+                    buffer.put((byte) layout.getSolution(i, j));
+                }
+            }
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static PuzzleLayout decode(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        int rows = buffer.get();
+        int cols = buffer.get();
+        PuzzleLayout layout = new PuzzleLayout(rows, cols);
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                switch (BoardCell.CellType.values()[buffer.get()]) {
+                    case CLUE:
+                        int hClue = buffer.get();
+                        int vClue = buffer.get();
+                        layout.writeCell(i, j, new BoardCell(hClue, vClue));
+                        break;
+                    case PLAYABLE:
+                        layout.writeCell(i, j, new BoardCell(buffer.get(), true));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        return layout;
+    }
+
+    private static long hash(byte[] record) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : record) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private void checkOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= count) {
+            throw new IndexOutOfBoundsException("Puzzle " + ordinal + " of " + count);
+        }
+    }
+
+    private byte[] readRecord(int ordinal) throws IOException {
+        int base = entryPosition(ordinal);
+        long offset = index.getLong(base + OFFSET_POS);
+        ByteBuffer buffer = ByteBuffer.allocate(index.getInt(base + LENGTH_POS));
+        while (buffer.hasRemaining()) {
+            if (dataChannel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Truncated puzzle record " + ordinal);
+            }
+        }
+        return buffer.array();
+    }
+
+    private PuzzleGrader.Rating ratingOf(int ordinal) throws IOException {
+        int rating = index.get(entryPosition(ordinal) + RATING_POS);
+        if (rating < 0 || rating >= RATINGS.length) {
+            throw new IOException("Corrupt rating " + rating + " for puzzle " + ordinal);
+        }
+        return RATINGS[rating];
+    }
+
+    private long hashOf(int ordinal) {
+        return index.getLong(entryPosition(ordinal) + HASH_POS);
+    }
+
+    private void mapIndex() throws IOException {
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * ENTRY_BYTES);
+    }
+
+    private void rebuildLookups() throws IOException {
+        hashSlots = new int[tableSize(Math.max(count, INITIAL_CAPACITY))];
+        hashMask = hashSlots.length - 1;
+        hashCount = 0;
+        bySize.clear();
+        bySizeAndRating.clear();
+
+        for (int ordinal = 0; ordinal < count; ordinal++) {
+            int base = entryPosition(ordinal);
+            register(ordinal, index.get(base + ROWS_POS), index.get(base + COLS_POS), ratingOf(ordinal));
+        }
+    }
+
+    private void register(int ordinal, int rows, int cols, PuzzleGrader.Rating rating) {
+        bySize.computeIfAbsent(sizeKey(rows, cols), k -> new IntList()).add(ordinal);
+        bySizeAndRating.computeIfAbsent(ratingKey(rows, cols, rating), k -> new IntList()).add(ordinal);
+
+        if ((hashCount + 1) * 2 > hashSlots.length) {
+            int[] old = hashSlots;
+            hashSlots = new int[old.length * 2];
+            hashMask = hashSlots.length - 1;
+            hashCount = 0;
+            for (int entry : old) {
+                if (entry != 0) insertOrdinal(entry - 1);
+            }
+        }
+        insertOrdinal(ordinal);
+    }
+
+    private void insertOrdinal(int ordinal) {
+        int slot = slotOf(hashOf(ordinal));
+        while (hashSlots[slot] != 0) {
+            slot = (slot + 1) & hashMask;
+        }
+        hashSlots[slot] = ordinal + 1;
+        hashCount++;
+    }
+
+    private int find(long hash, byte[] record) throws IOException {
+        int slot = slotOf(hash);
+        while (hashSlots[slot] != 0) {
+            int ordinal = hashSlots[slot] - 1;
+            if (hashOf(ordinal) == hash && Arrays.equals(readRecord(ordinal), record)) {
+                return ordinal;
+            }
+            slot = (slot + 1) & hashMask;
+        }
+        return -1;
+    }
+
+    private int slotOf(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & hashMask;
+    }
+
+    private static int tableSize(int entries) {
+        int size = 1;
+        while (size < entries * 2) size <<= 1;
+        return size;
+    }
+
+    private static int entryPosition(int ordinal) {
+        return HEADER_BYTES + ordinal * ENTRY_BYTES;
+    }
+
+    private static int sizeKey(int rows, int cols) {
+        return (rows << 8) | cols;
+    }
+
+    private static int ratingKey(int rows, int cols, PuzzleGrader.Rating rating) {
+        return (sizeKey(rows, cols) << 4) | rating.ordinal();
+    }
+
+    private static class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
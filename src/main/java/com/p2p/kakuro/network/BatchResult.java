@@ -0,0 +1,68 @@
+package com.p2p.kakuro.network;
+
+import net.tomp2p.peers.Number160;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class BatchResult<T> {
+
+    public enum Status {
+        OK,
+        NOT_FOUND,
+        FAILED
+    }
+
+    private final Map<Number160, Status> statuses;
+    private final Map<Number160, T> values;
+
+    BatchResult() {
+        this.statuses = new LinkedHashMap<>();
+        this.values = new LinkedHashMap<>();
+    }
+
+    void succeeded(Number160 key, T value) {
+        statuses.put(key, Status.OK);
+        if (value != null) {
+            values.put(key, value);
+        }
+    }
+
+    void missing(Number160 key) {
+        statuses.put(key, Status.NOT_FOUND);
+    }
+
+    void failed(Number160 key) {
+        statuses.put(key, Status.FAILED);
+    }
+
+    public Status status(Number160 key) {
+        return statuses.get(key);
+    }
+
+    public T get(Number160 key) {
+        return values.get(key);
+    }
+
+    public Map<Number160, T> values() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    public Set<Number160> failedKeys() {
+        return statuses.entrySet().stream()
+                .filter(e -> e.getValue() == Status.FAILED)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    public boolean isComplete() {
+        return !statuses.containsValue(Status.FAILED);
+    }
+
+    public int size() {
+        return statuses.size();
+    }
+}
@@ -1,31 +1,39 @@
 package com.p2p.kakuro.network;
 
-import com.p2p.kakuro.challenge.GameSession;
 import net.tomp2p.dht.FutureGet;
 import net.tomp2p.dht.FuturePut;
 import net.tomp2p.dht.PeerDHT;
 import net.tomp2p.peers.Number160;
+import net.tomp2p.peers.Number640;
 import net.tomp2p.storage.Data;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 
 public class DHTOperations {
     private static final Logger logger = LoggerFactory.getLogger(DHTOperations.class);
     
-    public static final Number160 LOGGED_PLAYERS_KEY = Number160.createHash("_logged_players_");
-    public static final Number160 PUBLIC_CHALLENGES_KEY = Number160.createHash("_public_challenges_");
-    
     private static final long TIMEOUT_MS = 10000;
     private static final int MAX_RETRIES = 5;
-    private static final int VERSION_CONFLICT_RETRIES = 3;
 
     public static <T extends Serializable> boolean put(PeerDHT peer, Number160 key, T value) {
+        return put(peer, key, value, 0);
+    }
+
+    public static <T extends Serializable> boolean put(PeerDHT peer, Number160 key, T value, int ttlSeconds) {
         for (int attempt = 0; attempt < MAX_RETRIES; attempt++) {
             try {
-                Data data = new Data(value);
+                Data data = ttlSeconds > 0 ? new Data(value).ttlSeconds(ttlSeconds) : new Data(value);
                 FuturePut futurePut = peer.put(key).data(data).start();
                 futurePut.awaitUninterruptibly(TIMEOUT_MS);
                 
@@ -42,54 +50,259 @@ public class DHTOperations {
         return false;
     }
 
-    public static GameSession putWithVersion(PeerDHT peer, Number160 key, GameSession localSession) {
-        for (int attempt = 0; attempt < VERSION_CONFLICT_RETRIES; attempt++) {
-            GameSession remoteSession = get(peer, key, GameSession.class);
-            
-            if (remoteSession != null) {
-                if (remoteSession.getVersion() > localSession.getVersion()) {
-                    logger.warn("Version conflict detected! Remote: {}, Local: {}. Merging...", 
-                               remoteSession.getVersion(), localSession.getVersion());
-                    return remoteSession;
+    public static <T extends Serializable> T get(PeerDHT peer, Number160 key, Class<T> type) {
+        for (int attempt = 0; attempt < MAX_RETRIES; attempt++) {
+            try {
+                FutureGet futureGet = peer.get(key).start();
+                futureGet.awaitUninterruptibly(TIMEOUT_MS);
+                
+                T value = extract(futureGet, type);
+                if (value != null) {
+                    logger.debug("Get success for key: {}", key);
+                    return value;
                 }
+            } catch (ClassNotFoundException | IOException e) {
+                logger.error("Deserialization error: {}", e.getMessage());
             }
+        }
+        return null;
+    }
 
-            if (put(peer, key, localSession)) {
-                logger.debug("Put with version success. New version: {}", localSession.getVersion());
-                return localSession;
+    public static <T extends Serializable> boolean putContent(PeerDHT peer, Number160 key, Number160 contentKey, T value) {
+        return putContent(peer, key, contentKey, value, 0);
+    }
+
+    public static <T extends Serializable> boolean putContent(PeerDHT peer, Number160 key, Number160 contentKey,
+                                                              T value, int ttlSeconds) {
+        for (int attempt = 0; attempt < MAX_RETRIES; attempt++) {
+            try {
+                Data data = ttlSeconds > 0 ? new Data(value).ttlSeconds(ttlSeconds) : new Data(value);
+                FuturePut futurePut = peer.put(key).data(contentKey, data).start();
+                futurePut.awaitUninterruptibly(TIMEOUT_MS);
+                
+                if (futurePut.isSuccess()) {
+                    logger.debug("Put content success for key: {}/{}", key, contentKey);
+                    return true;
+                }
+                logger.warn("Put content failed (attempt {}): {}", attempt + 1, futurePut.failedReason());
+            } catch (IOException e) {
+                logger.error("Serialization error: {}", e.getMessage());
+                return false;
             }
+        }
+        return false;
+    }
+
+    public static <T extends Serializable> boolean putContentIfAbsent(PeerDHT peer, Number160 key, Number160 contentKey, T value) {
+        return putContentIfAbsent(peer, key, contentKey, value, 0);
+    }
+
+    public static <T extends Serializable> boolean putContentIfAbsent(PeerDHT peer, Number160 key, Number160 contentKey,
+                                                                      T value, int ttlSeconds) {
+        try {
+            Data data = ttlSeconds > 0 ? new Data(value).ttlSeconds(ttlSeconds) : new Data(value);
+            FuturePut futurePut = peer.put(key).data(contentKey, data).putIfAbsent().start();
+            futurePut.awaitUninterruptibly(TIMEOUT_MS);
             
-            logger.warn("Put with version failed (attempt {}), retrying...", attempt + 1);
+            if (futurePut.isSuccess()) {
+                logger.debug("Put-if-absent success for key: {}/{}", key, contentKey);
+                return true;
+            }
+            logger.debug("Put-if-absent rejected for key {}/{}: {}", key, contentKey, futurePut.failedReason());
+        } catch (IOException e) {
+            logger.error("Serialization error: {}", e.getMessage());
+        }
+        return false;
+    }
+
+    public static <T extends Serializable> List<T> getAllContents(PeerDHT peer, Collection<Number160> keys, Class<T> type) {
+        List<T> results = new ArrayList<>();
+        for (Map<Number160, T> contents : getAllContentMaps(peer, keys, type).values().values()) {
+            results.addAll(contents.values());
+        }
+        return results;
+    }
+
+    public static <T extends Serializable> Map<Number160, T> getContents(PeerDHT peer, Number160 key, Class<T> type) {
+        Map<Number160, T> contents = getAllContentMaps(peer, Collections.singletonList(key), type).get(key);
+        return contents != null ? contents : new HashMap<>();
+    }
+
+    public static <T extends Serializable> BatchResult<Map<Number160, T>> getAllContentMaps(PeerDHT peer,
+                                                                                           Collection<Number160> keys,
+                                                                                           Class<T> type) {
+        BatchResult<Map<Number160, T>> result = new BatchResult<>();
+        Collection<Number160> pending = new LinkedHashSet<>(keys);
+        
+        for (int attempt = 0; attempt < MAX_RETRIES && !pending.isEmpty(); attempt++) {
+            Map<Number160, FutureGet> futures = new LinkedHashMap<>();
+            for (Number160 key : pending) {
+                futures.put(key, peer.get(key).all().start());
+            }
             
-            try {
-                Thread.sleep(100 * (attempt + 1));
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
+            for (Map.Entry<Number160, FutureGet> entry : futures.entrySet()) {
+                FutureGet futureGet = entry.getValue();
+                futureGet.awaitUninterruptibly(TIMEOUT_MS);
+                if (!futureGet.isSuccess() && !futureGet.isEmpty()) {
+                    result.failed(entry.getKey());
+                    continue;
+                }
+                Map<Number160, T> contents = extractContents(futureGet, type);
+                if (contents.isEmpty()) {
+                    result.missing(entry.getKey());
+                } else {
+                    result.succeeded(entry.getKey(), contents);
+                }
             }
+            pending = result.failedKeys();
         }
+        return result;
+    }
+
+    public static boolean touch(PeerDHT peer, Number160 key, Collection<Number160> contentKeys, int ttlSeconds) {
+        if (contentKeys.isEmpty()) return true;
         
-        logger.error("Put with version failed after {} attempts", VERSION_CONFLICT_RETRIES);
-        return null;
+        Map<Number160, Data> meta = new HashMap<>();
+        for (Number160 contentKey : contentKeys) {
+            meta.put(contentKey, new Data().ttlSeconds(ttlSeconds));
+        }
+        FuturePut futurePut = peer.put(key).dataMapContent(meta).putMeta().start();
+        futurePut.awaitUninterruptibly(TIMEOUT_MS);
+        
+        if (futurePut.isSuccess()) {
+            logger.debug("Refreshed TTL of {} entries under {}", contentKeys.size(), key);
+            return true;
+        }
+        logger.debug("TTL refresh failed for key {}: {}", key, futurePut.failedReason());
+        return false;
     }
 
-    public static <T extends Serializable> T get(PeerDHT peer, Number160 key, Class<T> type) {
-        for (int attempt = 0; attempt < MAX_RETRIES; attempt++) {
-            try {
-                FutureGet futureGet = peer.get(key).start();
+    public static boolean removeAll(PeerDHT peer, Number160 key) {
+        try {
+            peer.remove(key).all().start().awaitUninterruptibly(TIMEOUT_MS);
+            logger.debug("Removed all content of key: {}", key);
+            return true;
+        } catch (Exception e) {
+            logger.error("Remove error: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public static boolean removeContent(PeerDHT peer, Number160 key, Number160 contentKey) {
+        try {
+            peer.remove(key).contentKey(contentKey).start().awaitUninterruptibly(TIMEOUT_MS);
+            logger.debug("Removed content: {}/{}", key, contentKey);
+            return true;
+        } catch (Exception e) {
+            logger.error("Remove error: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public static <T extends Serializable> BatchResult<T> getAll(PeerDHT peer, Collection<Number160> keys, Class<T> type) {
+        BatchResult<T> result = new BatchResult<>();
+        Collection<Number160> pending = new LinkedHashSet<>(keys);
+        
+        for (int attempt = 0; attempt < MAX_RETRIES && !pending.isEmpty(); attempt++) {
+            Map<Number160, FutureGet> futures = new LinkedHashMap<>();
+            for (Number160 key : pending) {
+                futures.put(key, peer.get(key).start());
+            }
+            
+            for (Map.Entry<Number160, FutureGet> entry : futures.entrySet()) {
+                FutureGet futureGet = entry.getValue();
                 futureGet.awaitUninterruptibly(TIMEOUT_MS);
-                
-                if (futureGet.isSuccess() && futureGet.data() != null) {
-                    Object obj = futureGet.data().object();
-                    if (type.isInstance(obj)) {
-                        logger.debug("Get success for key: {}", key);
-                        return type.cast(obj);
+                if (!futureGet.isSuccess() && !futureGet.isEmpty()) {
+                    result.failed(entry.getKey());
+                    continue;
+                }
+                try {
+                    T value = extract(futureGet, type);
+                    if (value != null) {
+                        result.succeeded(entry.getKey(), value);
+                    } else {
+                        result.missing(entry.getKey());
                     }
+                } catch (ClassNotFoundException | IOException e) {
+                    logger.error("Deserialization error: {}", e.getMessage());
+                    result.missing(entry.getKey());
+                }
+            }
+            pending = result.failedKeys();
+        }
+        return result;
+    }
+
+    public static <T extends Serializable> BatchResult<T> putAll(PeerDHT peer, Map<Number160, T> values, int ttlSeconds) {
+        return putAll(peer, values, Number160.ZERO, ttlSeconds);
+    }
+
+    public static <T extends Serializable> BatchResult<T> putAll(PeerDHT peer, Map<Number160, T> values,
+                                                                 Number160 contentKey, int ttlSeconds) {
+        BatchResult<T> result = new BatchResult<>();
+        Map<Number160, Data> encoded = new LinkedHashMap<>();
+        for (Map.Entry<Number160, T> entry : values.entrySet()) {
+            try {
+                Data data = new Data(entry.getValue());
+                encoded.put(entry.getKey(), ttlSeconds > 0 ? data.ttlSeconds(ttlSeconds) : data);
+            } catch (IOException e) {
+                logger.error("Serialization error: {}", e.getMessage());
+                result.failed(entry.getKey());
+            }
+        }
+        
+        Collection<Number160> pending = new ArrayList<>(encoded.keySet());
+        for (int attempt = 0; attempt < MAX_RETRIES && !pending.isEmpty(); attempt++) {
+            Map<Number160, FuturePut> futures = new LinkedHashMap<>();
+            for (Number160 key : pending) {
+                futures.put(key, peer.put(key).data(contentKey, encoded.get(key)).start());
+            }
+            
+            pending = new ArrayList<>();
+            for (Map.Entry<Number160, FuturePut> entry : futures.entrySet()) {
+                FuturePut futurePut = entry.getValue();
+                futurePut.awaitUninterruptibly(TIMEOUT_MS);
+                if (futurePut.isSuccess()) {
+                    result.succeeded(entry.getKey(), values.get(entry.getKey()));
+                } else {
+                    logger.warn("Batch put failed for key {} (attempt {}): {}", entry.getKey(), attempt + 1,
+                            futurePut.failedReason());
+                    result.failed(entry.getKey());
+                    pending.add(entry.getKey());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static <T extends Serializable> Map<Number160, T> extractContents(FutureGet futureGet, Class<T> type) {
+        Map<Number160, T> contents = new HashMap<>();
+        if (futureGet.dataMap() == null) return contents;
+        
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Number640, Data> entry : futureGet.dataMap().entrySet()) {
+            if (entry.getValue().expirationMillis() < now) continue;
+            try {
+                Object obj = entry.getValue().object();
+                if (type.isInstance(obj)) {
+                    contents.put(entry.getKey().contentKey(), type.cast(obj));
                 }
             } catch (ClassNotFoundException | IOException e) {
                 logger.error("Deserialization error: {}", e.getMessage());
             }
         }
+        return contents;
+    }
+
+    private static <T extends Serializable> T extract(FutureGet futureGet, Class<T> type)
+            throws ClassNotFoundException, IOException {
+        if (futureGet.isSuccess() && futureGet.data() != null
+                && futureGet.data().expirationMillis() >= System.currentTimeMillis()) {
+            Object obj = futureGet.data().object();
+            if (type.isInstance(obj)) {
+                return type.cast(obj);
+            }
+        }
         return null;
     }
 
@@ -103,8 +316,4 @@ public class DHTOperations {
             return false;
         }
     }
-
-    public static Number160 createChallengeKey(String challengeName) {
-        return Number160.createHash("challenge_" + challengeName.toLowerCase());
-    }
 }
@@ -0,0 +1,76 @@
+package com.p2p.kakuro.network;
+
+import net.tomp2p.connection.PeerConnection;
+import net.tomp2p.futures.FuturePeerConnection;
+import net.tomp2p.p2p.Peer;
+import net.tomp2p.peers.PeerAddress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class DirectConnectionPool {
+    private static final Logger logger = LoggerFactory.getLogger(DirectConnectionPool.class);
+
+    public static final int IDLE_TIMEOUT_MS = 5 * 60 * 1000;
+
+    private final Peer peer;
+    private final Map<String, FuturePeerConnection> connections;
+
+    public DirectConnectionPool(Peer peer) {
+        this.peer = peer;
+        this.connections = new ConcurrentHashMap<>();
+    }
+
+    public void open(String nickname, PeerAddress address) {
+        String key = nickname.toLowerCase();
+        FuturePeerConnection existing = connections.get(key);
+        if (existing != null && isUsable(existing)) return;
+
+        FuturePeerConnection connection = peer.createPeerConnection(address, IDLE_TIMEOUT_MS);
+        FuturePeerConnection previous = connections.put(key, connection);
+        if (previous != null && previous != connection) {
+            previous.close();
+        }
+        logger.debug("Opened direct connection to {}", nickname);
+    }
+
+    public FuturePeerConnection get(String nickname) {
+        String key = nickname.toLowerCase();
+        FuturePeerConnection connection = connections.get(key);
+        if (connection == null) return null;
+
+        if (!isUsable(connection)) {
+            connections.remove(key, connection);
+            connection.close();
+            return null;
+        }
+        return connection;
+    }
+
+    public boolean contains(String nickname) {
+        return get(nickname) != null;
+    }
+
+    public void close(String nickname) {
+        FuturePeerConnection connection = connections.remove(nickname.toLowerCase());
+        if (connection != null) {
+            connection.close();
+            logger.debug("Closed direct connection to {}", nickname);
+        }
+    }
+
+    public void closeAll() {
+        for (String key : connections.keySet()) {
+            close(key);
+        }
+    }
+
+    private static boolean isUsable(FuturePeerConnection connection) {
+        if (!connection.isCompleted()) return true;
+        if (connection.isFailed()) return false;
+        PeerConnection established = connection.object();
+        return established != null && established.isOpen();
+    }
+}
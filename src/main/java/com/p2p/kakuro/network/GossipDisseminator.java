@@ -0,0 +1,190 @@
+package com.p2p.kakuro.network;
+
+import com.p2p.kakuro.challenge.PlayerInfo;
+import com.p2p.kakuro.network.P2PMessageHandler.GameMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class GossipDisseminator {
+    private static final Logger logger = LoggerFactory.getLogger(GossipDisseminator.class);
+
+    public static final int DEFAULT_FANOUT = 5;
+    public static final int DEFAULT_TTL = 8;
+
+    private static final int SEEN_CAPACITY = 4096;
+    private static final int VIEW_CAPACITY = 64;
+
+    public interface Transport {
+        void send(PlayerInfo target, Object message);
+    }
+
+    public interface SubscriberSource {
+        List<PlayerInfo> subscribers(String topic);
+    }
+
+    public static class Envelope implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String id;
+        private final String topic;
+        private final int ttl;
+        private final PlayerInfo relay;
+        private final List<PlayerInfo> members;
+        private final GameMessage payload;
+
+        Envelope(String id, String topic, int ttl, PlayerInfo relay, List<PlayerInfo> members, GameMessage payload) {
+            this.id = id;
+            this.topic = topic;
+            this.ttl = ttl;
+            this.relay = relay;
+            this.members = members;
+            this.payload = payload;
+        }
+
+        public String getId() { return id; }
+        public String getTopic() { return topic; }
+        public int getTtl() { return ttl; }
+        public PlayerInfo getRelay() { return relay; }
+        public List<PlayerInfo> getMembers() { return members; }
+        public GameMessage getPayload() { return payload; }
+    }
+
+    private final int fanout;
+    private final int ttl;
+    private final Transport transport;
+    private final Map<String, Boolean> seen;
+    private final Map<String, List<PlayerInfo>> views;
+    private final ExecutorService sender;
+
+    public GossipDisseminator(int fanout, int ttl, Transport transport) {
+        this.fanout = fanout;
+        this.ttl = ttl;
+        this.transport = transport;
+        this.seen = Collections.synchronizedMap(new LinkedHashMap<String, Boolean>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > SEEN_CAPACITY;
+            }
+        });
+        this.views = new ConcurrentHashMap<>();
+        this.sender = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "gossip");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled() {
+        return fanout > 0 && ttl > 0;
+    }
+
+    public boolean shouldGossip(int subscriberCount) {
+        return isEnabled() && subscriberCount > fanout * 2;
+    }
+
+    public void announce(String topic, GameMessage message, PlayerInfo self, List<PlayerInfo> subscribers) {
+        String id = UUID.randomUUID().toString();
+        seen.put(id, Boolean.TRUE);
+        List<PlayerInfo> members = others(subscribers, self, null);
+        remember(topic, members);
+        sender.execute(() -> spread(id, topic, ttl, self, message, new ArrayList<>(members), true));
+    }
+
+    public boolean accept(Envelope envelope, PlayerInfo self) {
+        List<PlayerInfo> delegated = others(envelope.getMembers(), self, envelope.getRelay());
+        List<PlayerInfo> learned = new ArrayList<>(delegated);
+        learned.add(envelope.getRelay());
+        remember(envelope.getTopic(), others(learned, self, null));
+
+        if (seen.putIfAbsent(envelope.getId(), Boolean.TRUE) != null) {
+            return false;
+        }
+
+        if (envelope.getTtl() > 1 && self != null) {
+            boolean partition = !delegated.isEmpty();
+            List<PlayerInfo> members = partition
+                    ? delegated
+                    : others(view(envelope.getTopic()), self, envelope.getRelay());
+            sender.execute(() -> spread(envelope.getId(), envelope.getTopic(), envelope.getTtl() - 1, self,
+                    envelope.getPayload(), members, partition));
+        }
+        return true;
+    }
+
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    private void spread(String id, String topic, int hops, PlayerInfo self, GameMessage payload,
+                        List<PlayerInfo> members, boolean partition) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int targets = Math.min(fanout, members.size());
+        for (int i = 0; i < targets; i++) {
+            Collections.swap(members, i, i + random.nextInt(members.size() - i));
+        }
+
+        List<List<PlayerInfo>> slices = new ArrayList<>(targets);
+        for (int i = 0; i < targets; i++) {
+            slices.add(new ArrayList<>());
+        }
+        if (partition) {
+            for (int i = targets; i < members.size(); i++) {
+                slices.get(i % targets).add(members.get(i));
+            }
+        }
+
+        for (int i = 0; i < targets; i++) {
+            transport.send(members.get(i), new Envelope(id, topic, hops, self, slices.get(i), payload));
+        }
+        logger.debug("Gossip {} (ttl {}) forwarded to {} peers", id, hops, targets);
+    }
+
+    private void remember(String topic, List<PlayerInfo> learned) {
+        List<PlayerInfo> view = views.computeIfAbsent(topic, t -> new ArrayList<>());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        synchronized (view) {
+            for (PlayerInfo player : learned) {
+                int known = view.indexOf(player);
+                if (known >= 0) {
+                    view.set(known, player);
+                } else if (view.size() < VIEW_CAPACITY) {
+                    view.add(player);
+                } else {
+                    view.set(random.nextInt(VIEW_CAPACITY), player);
+                }
+            }
+        }
+    }
+
+    private List<PlayerInfo> view(String topic) {
+        List<PlayerInfo> view = views.get(topic);
+        if (view == null) {
+            return Collections.emptyList();
+        }
+        synchronized (view) {
+            return new ArrayList<>(view);
+        }
+    }
+
+    private static List<PlayerInfo> others(Collection<PlayerInfo> players, PlayerInfo self, PlayerInfo excluded) {
+        List<PlayerInfo> result = new ArrayList<>(players.size());
+        for (PlayerInfo player : players) {
+            if (player == null || player.equals(self) || player.equals(excluded)) continue;
+            result.add(player);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,110 @@
+package com.p2p.kakuro.network;
+
+import com.p2p.kakuro.challenge.PlayerStats;
+import net.tomp2p.dht.PeerDHT;
+import net.tomp2p.peers.Number160;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class Leaderboard {
+    private static final Logger logger = LoggerFactory.getLogger(Leaderboard.class);
+
+    public static final int SHARD_COUNT = 8;
+    private static final int RECORD_ATTEMPTS = 3;
+    private static final long VERSION_RETENTION_MS = 5 * 60 * 1000;
+
+    private static final List<Number160> SHARD_KEYS = createShardKeys();
+
+    public static PlayerStats load(PeerDHT peer, String nickname) {
+        Map<Number160, PlayerStats> versions = versions(peer, statsKey(nickname));
+        return versions != null ? latest(nickname, versions) : null;
+    }
+
+    public static PlayerStats record(PeerDHT peer, String nickname, int wins, int cellsFound, int gamesPlayed) {
+        Number160 key = statsKey(nickname);
+        for (int attempt = 0; attempt < RECORD_ATTEMPTS; attempt++) {
+            long readAt = System.currentTimeMillis();
+            Map<Number160, PlayerStats> versions = versions(peer, key);
+            if (versions == null) {
+                logger.debug("Stats of {} could not be read, keeping the update", nickname);
+                return null;
+            }
+            PlayerStats updated = latest(nickname, versions).plus(wins, cellsFound, gamesPlayed);
+            if (System.currentTimeMillis() - readAt > VERSION_RETENTION_MS / 2) {
+                continue;
+            }
+            if (DHTOperations.putContentIfAbsent(peer, key, versionKey(updated.getVersion()), updated)) {
+                prune(peer, key, versions, updated.getUpdatedAt());
+                return updated;
+            }
+            logger.debug("Stats of {} changed concurrently, retrying", nickname);
+        }
+        return null;
+    }
+
+    public static List<PlayerStats> top(PeerDHT peer, int limit) {
+        List<PlayerStats> entries = DHTOperations.getAllContents(peer, SHARD_KEYS, PlayerStats.class);
+        entries.sort(PlayerStats.RANKING);
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, limit)) : entries;
+    }
+
+    public static boolean publish(PeerDHT peer, PlayerStats stats) {
+        return DHTOperations.putContent(peer, shardKey(stats.getNickname()), entryKey(stats.getNickname()), stats);
+    }
+
+    private static Map<Number160, PlayerStats> versions(PeerDHT peer, Number160 key) {
+        BatchResult<Map<Number160, PlayerStats>> read = DHTOperations.getAllContentMaps(peer,
+                Collections.singletonList(key), PlayerStats.class);
+        if (read.status(key) == BatchResult.Status.NOT_FOUND) {
+            return Collections.emptyMap();
+        }
+        return read.get(key);
+    }
+
+    private static PlayerStats latest(String nickname, Map<Number160, PlayerStats> versions) {
+        PlayerStats latest = PlayerStats.empty(nickname);
+        for (PlayerStats stats : versions.values()) {
+            if (stats.getVersion() > latest.getVersion()) {
+                latest = stats;
+            }
+        }
+        return latest;
+    }
+
+    private static void prune(PeerDHT peer, Number160 key, Map<Number160, PlayerStats> versions, long now) {
+        for (Map.Entry<Number160, PlayerStats> entry : versions.entrySet()) {
+            if (now - entry.getValue().getUpdatedAt() > VERSION_RETENTION_MS) {
+                DHTOperations.removeContent(peer, key, entry.getKey());
+            }
+        }
+    }
+
+    private static Number160 statsKey(String nickname) {
+        return Number160.createHash("stats_" + nickname.toLowerCase());
+    }
+
+    private static Number160 versionKey(long version) {
+        return new Number160(version);
+    }
+
+    private static Number160 entryKey(String nickname) {
+        return Number160.createHash(nickname.toLowerCase());
+    }
+
+    private static Number160 shardKey(String nickname) {
+        return SHARD_KEYS.get(Math.floorMod(nickname.toLowerCase().hashCode(), SHARD_COUNT));
+    }
+
+    private static List<Number160> createShardKeys() {
+        List<Number160> keys = new ArrayList<>(SHARD_COUNT);
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            keys.add(Number160.createHash("_leaderboard_" + i));
+        }
+        return Collections.unmodifiableList(keys);
+    }
+}
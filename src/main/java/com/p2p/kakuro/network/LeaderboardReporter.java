@@ -0,0 +1,86 @@
+package com.p2p.kakuro.network;
+
+import com.p2p.kakuro.challenge.PlayerStats;
+import net.tomp2p.dht.PeerDHT;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class LeaderboardReporter {
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardReporter.class);
+
+    public static final long FLUSH_INTERVAL_MS = 10000;
+
+    private static class Result {
+        final String nickname;
+        final int wins;
+        final int cellsFound;
+        final int gamesPlayed;
+
+        Result(String nickname, int wins, int cellsFound, int gamesPlayed) {
+            this.nickname = nickname;
+            this.wins = wins;
+            this.cellsFound = cellsFound;
+            this.gamesPlayed = gamesPlayed;
+        }
+
+        Result plus(Result other) {
+            return new Result(nickname, wins + other.wins, cellsFound + other.cellsFound, gamesPlayed + other.gamesPlayed);
+        }
+    }
+
+    private final PeerDHT peer;
+    private final Queue<Result> pending;
+    private final Map<String, PlayerStats> unpublished;
+
+    public LeaderboardReporter(PeerDHT peer) {
+        this.peer = peer;
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.unpublished = new ConcurrentHashMap<>();
+    }
+
+    public void submit(String nickname, boolean won, int cellsFound) {
+        pending.add(new Result(nickname, won ? 1 : 0, cellsFound, 1));
+    }
+
+    public boolean hasPending() {
+        return !pending.isEmpty() || !unpublished.isEmpty();
+    }
+
+    public synchronized void flush() {
+        Map<String, Result> batch = new LinkedHashMap<>();
+        Result result;
+        while ((result = pending.poll()) != null) {
+            batch.merge(result.nickname.toLowerCase(), result, Result::plus);
+        }
+
+        for (Result total : batch.values()) {
+            try {
+                PlayerStats updated = Leaderboard.record(peer, total.nickname, total.wins, total.cellsFound, total.gamesPlayed);
+                if (updated == null) {
+                    pending.add(total);
+                } else {
+                    unpublished.put(total.nickname.toLowerCase(), updated);
+                }
+            } catch (Exception e) {
+                logger.warn("Leaderboard update for {} failed: {}", total.nickname, e.getMessage());
+                pending.add(total);
+            }
+        }
+
+        for (Map.Entry<String, PlayerStats> entry : unpublished.entrySet()) {
+            try {
+                if (Leaderboard.publish(peer, entry.getValue())) {
+                    unpublished.remove(entry.getKey(), entry.getValue());
+                }
+            } catch (Exception e) {
+                logger.warn("Leaderboard entry update for {} failed: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.p2p.kakuro.network;
+
+import com.p2p.kakuro.challenge.MatchTicket;
+import com.p2p.kakuro.game.PuzzleGenerator;
+import net.tomp2p.dht.PeerDHT;
+import net.tomp2p.peers.Number160;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MatchmakingQueue {
+    private static final Logger logger = LoggerFactory.getLogger(MatchmakingQueue.class);
+
+    public static final int BUCKET_COUNT = 16;
+    public static final int MIN_GROUP_SIZE = 2;
+    public static final int MAX_GROUP_SIZE = 4;
+    public static final int TICKET_TTL_SECONDS = 30;
+    public static final long TICKET_REFRESH_MS = TICKET_TTL_SECONDS * 1000L / 3;
+    public static final int CLAIM_LEASE_SECONDS = 60;
+    public static final long POLL_INTERVAL_MS = 2000;
+    public static final long WIDEN_INTERVAL_MS = POLL_INTERVAL_MS * 2;
+    public static final int MAX_SEARCH_LEVEL = Integer.numberOfTrailingZeros(BUCKET_COUNT);
+    public static final String CANCELLED = "";
+
+    public static boolean enqueue(PeerDHT peer, MatchTicket ticket) {
+        return DHTOperations.putContent(peer, bucketKey(ticket), ticketKey(ticket), ticket, TICKET_TTL_SECONDS);
+    }
+
+    public static boolean withdraw(PeerDHT peer, MatchTicket ticket) {
+        return DHTOperations.removeContent(peer, bucketKey(ticket), ticketKey(ticket));
+    }
+
+    public static List<MatchTicket> waiting(PeerDHT peer, PuzzleGenerator.Difficulty difficulty, int groupSize) {
+        return waiting(peer, difficulty, groupSize, 0, MAX_SEARCH_LEVEL);
+    }
+
+    public static List<MatchTicket> waiting(PeerDHT peer, MatchTicket own) {
+        return waiting(peer, own.getDifficulty(), own.getGroupSize(), bucketOf(own),
+                searchLevel(own, System.currentTimeMillis()));
+    }
+
+    public static int searchLevel(MatchTicket ticket, long now) {
+        long waited = Math.max(0, now - ticket.getEnqueuedAt());
+        return (int) Math.min(MAX_SEARCH_LEVEL, waited / WIDEN_INTERVAL_MS);
+    }
+
+    public static int bucketOf(MatchTicket ticket) {
+        return Math.floorMod(ticket.getId().hashCode(), BUCKET_COUNT);
+    }
+
+    private static List<MatchTicket> waiting(PeerDHT peer, PuzzleGenerator.Difficulty difficulty, int groupSize,
+                                             int bucket, int level) {
+        List<MatchTicket> tickets = DHTOperations.getAllContents(peer,
+                bucketKeys(difficulty, groupSize, bucket, level), MatchTicket.class);
+        tickets.sort(MatchTicket.QUEUE_ORDER);
+        return tickets;
+    }
+
+    public static String claimOf(PeerDHT peer, MatchTicket ticket) {
+        return DHTOperations.get(peer, claimKey(ticket), String.class);
+    }
+
+    public static boolean claim(PeerDHT peer, MatchTicket ticket, String matchName) {
+        return DHTOperations.putContentIfAbsent(peer, claimKey(ticket), Number160.ZERO, matchName, CLAIM_LEASE_SECONDS);
+    }
+
+    public static void release(PeerDHT peer, List<MatchTicket> tickets) {
+        for (MatchTicket ticket : tickets) {
+            DHTOperations.remove(peer, claimKey(ticket));
+        }
+    }
+
+    public static List<MatchTicket> formGroup(PeerDHT peer, MatchTicket own, String matchName) {
+        List<MatchTicket> waiting = waiting(peer, own);
+        int position = waiting.indexOf(own);
+        int size = own.getGroupSize();
+        if (position < 0 || position % size != 0 || position + size > waiting.size()) {
+            return null;
+        }
+
+        List<MatchTicket> group = new ArrayList<>(waiting.subList(position, position + size));
+        List<MatchTicket> claimed = new ArrayList<>(size);
+        for (MatchTicket ticket : group) {
+            if (!claim(peer, ticket, matchName)) {
+                logger.debug("Ticket {} already claimed, releasing {} claims", ticket, claimed.size());
+                release(peer, claimed);
+                return null;
+            }
+            claimed.add(ticket);
+        }
+
+        for (MatchTicket ticket : group) {
+            withdraw(peer, ticket);
+        }
+        logger.info("Formed {} with {} players", matchName, size);
+        return group;
+    }
+
+    private static List<Number160> bucketKeys(PuzzleGenerator.Difficulty difficulty, int groupSize,
+                                              int bucket, int level) {
+        int span = 1 << level;
+        int first = bucket & -span;
+        List<Number160> keys = new ArrayList<>(span);
+        for (int i = first; i < first + span; i++) {
+            keys.add(bucketKey(difficulty, groupSize, i));
+        }
+        return keys;
+    }
+
+    private static Number160 bucketKey(MatchTicket ticket) {
+        return bucketKey(ticket.getDifficulty(), ticket.getGroupSize(), bucketOf(ticket));
+    }
+
+    private static Number160 bucketKey(PuzzleGenerator.Difficulty difficulty, int groupSize, int bucket) {
+        return Number160.createHash("_matchmaking_" + difficulty + "_" + groupSize + "_" + bucket);
+    }
+
+    private static Number160 ticketKey(MatchTicket ticket) {
+        return Number160.createHash(ticket.getId());
+    }
+
+    private static Number160 claimKey(MatchTicket ticket) {
+        return Number160.createHash("match_claim_" + ticket.getId());
+    }
+}
@@ -0,0 +1,113 @@
+package com.p2p.kakuro.network;
+
+import com.p2p.kakuro.network.P2PMessageHandler.GameMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class OutboundBatcher {
+    private static final Logger logger = LoggerFactory.getLogger(OutboundBatcher.class);
+
+    public static final long DEFAULT_WINDOW_MS = 20;
+
+    public interface Transport {
+        void send(String recipient, Object frame);
+    }
+
+    public static class Batch implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final List<GameMessage> messages;
+
+        Batch(List<GameMessage> messages) {
+            this.messages = messages;
+        }
+
+        public List<GameMessage> getMessages() { return Collections.unmodifiableList(messages); }
+    }
+
+    private final long windowMs;
+    private final Transport transport;
+    private final Map<String, Map<String, GameMessage>> pending;
+    private final ScheduledExecutorService flusher;
+
+    public OutboundBatcher(long windowMs, Transport transport) {
+        this.windowMs = windowMs;
+        this.transport = transport;
+        this.pending = new HashMap<>();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "outbound-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void enqueue(String recipient, GameMessage message) {
+        if (windowMs <= 0) {
+            flusher.execute(() -> transport.send(recipient, message));
+            return;
+        }
+
+        boolean first;
+        synchronized (pending) {
+            Map<String, GameMessage> queue = pending.computeIfAbsent(recipient, k -> new LinkedHashMap<>());
+            first = queue.isEmpty();
+            String key = coalesceKey(message);
+            queue.remove(key);
+            queue.put(key, message);
+        }
+        if (first) {
+            flusher.schedule(() -> flush(recipient), windowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void flushAll() {
+        List<String> recipients;
+        synchronized (pending) {
+            recipients = new ArrayList<>(pending.keySet());
+        }
+        for (String recipient : recipients) {
+            flush(recipient);
+        }
+    }
+
+    public void shutdown() {
+        flusher.shutdownNow();
+    }
+
+    private void flush(String recipient) {
+        List<GameMessage> messages;
+        synchronized (pending) {
+            Map<String, GameMessage> queue = pending.remove(recipient);
+            if (queue == null || queue.isEmpty()) return;
+            messages = new ArrayList<>(queue.values());
+        }
+
+        if (messages.size() == 1) {
+            transport.send(recipient, messages.get(0));
+        } else {
+            logger.debug("Sending {} coalesced messages to {}", messages.size(), recipient);
+            transport.send(recipient, new Batch(messages));
+        }
+    }
+
+    private static String coalesceKey(GameMessage message) {
+        switch (message.getType()) {
+            case NUMBER_PLACED:
+            case CHALLENGE_UPDATED:
+                return message.getType() + ":" + message.getChallengeName();
+            default:
+                return message.getId();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.p2p.kakuro.network;
 import net.tomp2p.peers.PeerAddress;
 
 import java.io.Serializable;
+import java.util.UUID;
 
 public interface P2PMessageHandler {
     
@@ -18,29 +19,41 @@ public interface P2PMessageHandler {
             PLAYER_LEFT,
             CHALLENGE_STARTED,
             CHALLENGE_FINISHED,
-            NUMBER_PLACED
+            NUMBER_PLACED,
+            MATCH_FOUND,
+            SPECTATE_UPDATED
         }
         
+        private final String id;
         private final Type type;
         private final String challengeName;
         private final String playerNickname;
         private final String extraInfo;
+        private final long sequence;
         
         public GameMessage(Type type, String challengeName, String playerNickname) {
             this(type, challengeName, playerNickname, null);
         }
         
         public GameMessage(Type type, String challengeName, String playerNickname, String extraInfo) {
+            this(type, challengeName, playerNickname, extraInfo, 0);
+        }
+        
+        public GameMessage(Type type, String challengeName, String playerNickname, String extraInfo, long sequence) {
+            this.id = UUID.randomUUID().toString();
             this.type = type;
             this.challengeName = challengeName;
             this.playerNickname = playerNickname;
             this.extraInfo = extraInfo;
+            this.sequence = sequence;
         }
         
+        public String getId() { return id; }
         public Type getType() { return type; }
         public String getChallengeName() { return challengeName; }
         public String getPlayerNickname() { return playerNickname; }
         public String getExtraInfo() { return extraInfo; }
+        public long getSequence() { return sequence; }
         
         @Override
         public String toString() {
@@ -1,15 +1,23 @@
 package com.p2p.kakuro.network;
 
+import com.p2p.kakuro.challenge.ChallengeSummary;
 import com.p2p.kakuro.challenge.GameSession;
+import com.p2p.kakuro.challenge.MatchTicket;
 import com.p2p.kakuro.challenge.PlayerInfo;
+import com.p2p.kakuro.challenge.PlayerStats;
+import com.p2p.kakuro.challenge.ReplayRecorder;
+import com.p2p.kakuro.challenge.SessionEvent;
 import com.p2p.kakuro.game.GameBoard;
+import com.p2p.kakuro.game.HintEngine;
 import com.p2p.kakuro.game.PuzzleGenerator;
+import com.p2p.kakuro.game.PuzzleLibrary;
 import com.p2p.kakuro.network.P2PMessageHandler.GameMessage;
 
 import net.tomp2p.dht.PeerBuilderDHT;
 import net.tomp2p.dht.PeerDHT;
 import net.tomp2p.futures.FutureBootstrap;
 import net.tomp2p.futures.FutureDirect;
+import net.tomp2p.futures.FuturePeerConnection;
 import net.tomp2p.p2p.PeerBuilder;
 import net.tomp2p.peers.Number160;
 import net.tomp2p.peers.PeerAddress;
@@ -19,32 +27,115 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.InetAddress;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class P2PNetworkManager {
     private static final Logger logger = LoggerFactory.getLogger(P2PNetworkManager.class);
 
+    private static final int RECENT_MESSAGES = 1024;
+    private static final long LEAVE_DRAIN_MS = 5000;
+    private static final long PARTICIPANT_LOOKUP_INTERVAL_MS = 10000;
+
     private final PeerDHT peer;
-    private PlayerInfo currentPlayer;
-    private GameSession currentChallenge;
-    private Set<String> publicChallenges;
+    private volatile PlayerInfo currentPlayer;
+    private volatile GameSession currentChallenge;
+    private volatile SessionLog sessionLog;
+    private volatile PublicChallengeIndex.Listing publicChallenges;
+    private volatile long lastIndexPublish;
     private final List<P2PMessageHandler> listeners;
+    private final List<int[]> pendingMoves;
+    private final Set<String> subscriptions;
+    private final ScheduledExecutorService maintenance;
+    private final SuspicionList suspects;
+    private final Map<String, Boolean> recentMessages;
+    private final AtomicLong moveSequence;
+    private final DirectConnectionPool connections;
+    private final Map<String, PlayerInfo> participantAddresses;
+    private final Map<String, Long> missingParticipants;
+    private volatile long lastParticipantLookup;
+    private final LeaderboardReporter leaderboardReporter;
+    private volatile boolean resultReported;
+    private volatile MatchTicket matchTicket;
+    private volatile long lastTicketRefresh;
+    private final AtomicBoolean matchmakingRound = new AtomicBoolean();
+    private volatile GossipDisseminator gossip;
+    private volatile OutboundBatcher batcher;
+    private final PriorityLanes inbound;
+    private final PriorityLanes outbound;
+    private final SpectatorRelay spectatorRelay;
+    private volatile SessionLog spectatedLog;
+    private volatile long lastSpectatorUpdate;
+    private HintEngine hintEngine;
+    private PuzzleLibrary puzzleLibrary;
+    private Path replayDirectory;
+    private volatile ReplayRecorder recorder;
+    private volatile Path lastReplay;
 
     public P2PNetworkManager(int localPort, String masterAddress, int masterPort) throws Exception {
         this.listeners = new CopyOnWriteArrayList<>();
-        this.publicChallenges = new HashSet<>();
+        this.pendingMoves = new CopyOnWriteArrayList<>();
+        this.subscriptions = ConcurrentHashMap.newKeySet();
+        this.suspects = new SuspicionList();
+        this.recentMessages = Collections.synchronizedMap(new LinkedHashMap<String, Boolean>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > RECENT_MESSAGES;
+            }
+        });
+        this.moveSequence = new AtomicLong();
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "p2p-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.publicChallenges = PublicChallengeIndex.EMPTY;
 
         this.peer = new PeerBuilderDHT(new PeerBuilder(Number160.createHash(UUID.randomUUID().toString()))
                 .ports(localPort)
                 .start())
                 .start();
 
+        this.connections = new DirectConnectionPool(peer.peer());
+        this.participantAddresses = new ConcurrentHashMap<>();
+        this.missingParticipants = new ConcurrentHashMap<>();
+        this.inbound = new PriorityLanes("inbound");
+        this.outbound = new PriorityLanes("outbound");
+        this.leaderboardReporter = new LeaderboardReporter(peer);
+        setGossip(GossipDisseminator.DEFAULT_FANOUT, GossipDisseminator.DEFAULT_TTL);
+        setBatchWindow(OutboundBatcher.DEFAULT_WINDOW_MS);
+        this.spectatorRelay = new SpectatorRelay(SpectatorRelay.DEFAULT_FANOUT, this::sendToPlayer,
+                topic -> TopicRegistry.subscribers(peer, topic));
+
         peer.peer().objectDataReply(new ObjectDataReply() {
             @Override
             public Object reply(PeerAddress sender, Object request) throws Exception {
                 if (request instanceof GameMessage) {
-                    handleMessage(sender, (GameMessage) request);
+                    GameMessage message = (GameMessage) request;
+                    inbound.submit(PriorityLanes.laneOf(message.getType()), PriorityLanes.keyOf(message),
+                            () -> handleMessage(sender, message));
+                } else if (request instanceof GossipDisseminator.Envelope) {
+                    GossipDisseminator.Envelope envelope = (GossipDisseminator.Envelope) request;
+                    if (gossip.accept(envelope, currentPlayer)) {
+                        GameMessage message = envelope.getPayload();
+                        inbound.submit(PriorityLanes.laneOf(message.getType()), PriorityLanes.keyOf(message),
+                                () -> handleMessage(sender, message));
+                    }
+                } else if (request instanceof OutboundBatcher.Batch) {
+                    List<GameMessage> messages = ((OutboundBatcher.Batch) request).getMessages();
+                    String key = messages.isEmpty() ? PriorityLanes.UNKEYED : PriorityLanes.keyOf(messages.get(0));
+                    inbound.submit(PriorityLanes.Lane.GAME, key, () -> handleMessages(sender, messages));
+                } else if (request instanceof SpectatorRelay.Update) {
+                    SpectatorRelay.Update update = (SpectatorRelay.Update) request;
+                    inbound.submit(PriorityLanes.Lane.LOBBY, update.getChallengeName().toLowerCase(),
+                            () -> handleSpectatorUpdate(update));
                 }
                 return "OK";
             }
@@ -66,6 +157,46 @@ public class P2PNetworkManager {
         } else {
             logger.info("Started as master node on port {}", localPort);
         }
+        
+        maintenance.scheduleAtFixedRate(this::sendHeartbeat, PresenceRegistry.HEARTBEAT_INTERVAL_MS,
+                PresenceRegistry.HEARTBEAT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        maintenance.scheduleAtFixedRate(this::renewSubscriptions, TopicRegistry.RENEW_INTERVAL_MS,
+                TopicRegistry.RENEW_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        maintenance.scheduleAtFixedRate(this::keepSessionAlive, SessionLog.KEEP_ALIVE_RETRY_MS,
+                SessionLog.KEEP_ALIVE_RETRY_MS, TimeUnit.MILLISECONDS);
+        maintenance.scheduleAtFixedRate(this::matchmakingTick, MatchmakingQueue.POLL_INTERVAL_MS,
+                MatchmakingQueue.POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        maintenance.scheduleAtFixedRate(this::spectatorCatchUp, SpectatorRelay.IDLE_CATCH_UP_MS,
+                SpectatorRelay.IDLE_CATCH_UP_MS, TimeUnit.MILLISECONDS);
+        maintenance.scheduleAtFixedRate(this::flushLeaderboard, LeaderboardReporter.FLUSH_INTERVAL_MS,
+                LeaderboardReporter.FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public void setPuzzleLibrary(PuzzleLibrary puzzleLibrary) {
+        this.puzzleLibrary = puzzleLibrary;
+    }
+
+    public void setReplayDirectory(Path replayDirectory) {
+        this.replayDirectory = replayDirectory;
+    }
+
+    public void setGossip(int fanout, int ttl) {
+        GossipDisseminator previous = gossip;
+        gossip = new GossipDisseminator(fanout, ttl, this::sendToPlayer);
+        if (previous != null) {
+            previous.shutdown();
+        }
+    }
+
+    public void setBatchWindow(long windowMs) {
+        OutboundBatcher previous = batcher;
+        batcher = new OutboundBatcher(windowMs, (recipient, frame) ->
+                outbound.submit(PriorityLanes.Lane.GAME, recipient.toLowerCase(),
+                        () -> sendToParticipant(recipient, frame)));
+        if (previous != null) {
+            previous.flushAll();
+            previous.shutdown();
+        }
     }
 
     public void addListener(P2PMessageHandler listener) {
@@ -77,27 +208,67 @@ public class P2PNetworkManager {
     }
 
     private void handleMessage(PeerAddress sender, GameMessage message) {
-        logger.debug("Received: {}", message);
+        handleMessages(sender, Collections.singletonList(message));
+    }
+
+    private void handleMessages(PeerAddress sender, List<GameMessage> messages) {
+        List<GameMessage> fresh = new ArrayList<>(messages.size());
+        for (GameMessage message : messages) {
+            if (recentMessages.put(message.getId(), Boolean.TRUE) != null) {
+                logger.debug("Dropping duplicate: {}", message);
+            } else {
+                fresh.add(message);
+            }
+        }
         
-        switch (message.getType()) {
-            case PUBLIC_CHALLENGES_UPDATED:
-                refreshPublicChallenges();
-                break;
-            case CHALLENGE_UPDATED:
-            case PLAYER_JOINED:
-            case PLAYER_LEFT:
-            case CHALLENGE_STARTED:
-            case NUMBER_PLACED:
-            case CHALLENGE_FINISHED:
-                if (currentChallenge != null && 
-                    message.getChallengeName().equals(currentChallenge.getName())) {
-                    refreshCurrentChallenge();
-                }
-                break;
+        boolean refreshLobby = false;
+        boolean refreshChallenge = false;
+        for (GameMessage message : fresh) {
+            logger.debug("Received: {}", message);
+            suspects.clear(message.getPlayerNickname());
+            
+            switch (message.getType()) {
+                case PUBLIC_CHALLENGES_UPDATED:
+                    refreshLobby = true;
+                    break;
+                case MATCH_FOUND:
+                    if (matchTicket != null) {
+                        maintenance.execute(this::matchmakingTick);
+                    }
+                    break;
+                case CHALLENGE_UPDATED:
+                case PLAYER_JOINED:
+                case PLAYER_LEFT:
+                case CHALLENGE_STARTED:
+                case NUMBER_PLACED:
+                case CHALLENGE_FINISHED:
+                    if (currentChallenge != null && 
+                        message.getChallengeName().equals(currentChallenge.getName())) {
+                        if (message.getType() == GameMessage.Type.PLAYER_LEFT) {
+                            connections.close(message.getPlayerNickname());
+                            participantAddresses.remove(message.getPlayerNickname().toLowerCase());
+                        } else if (sender != null) {
+                            connections.open(message.getPlayerNickname(), sender);
+                        }
+                        SessionLog log = sessionLog;
+                        if (log == null || message.getSequence() == 0 || message.getSequence() > log.getLastSequence()) {
+                            refreshChallenge = true;
+                        }
+                    }
+                    break;
+            }
         }
         
-        for (P2PMessageHandler listener : listeners) {
-            listener.onMessageReceived(sender, message);
+        if (refreshLobby) {
+            refreshPublicChallenges();
+        }
+        if (refreshChallenge) {
+            refreshCurrentChallenge();
+        }
+        for (GameMessage message : fresh) {
+            for (P2PMessageHandler listener : listeners) {
+                listener.onMessageReceived(sender, message);
+            }
         }
     }
 
@@ -106,18 +277,19 @@ public class P2PNetworkManager {
             return false;
         }
 
-        Set<PlayerInfo> loggedPlayers = getLoggedPlayers();
-        for (PlayerInfo p : loggedPlayers) {
-            if (p.getNickname().equalsIgnoreCase(nickname)) {
-                return false;
-            }
+        PeerAddress self = peer.peer().peerAddress();
+        PlayerInfo player = new PlayerInfo(nickname, self.peerId(), self.inetAddress(), self.tcpPort());
+        PlayerInfo existing = PresenceRegistry.lookup(peer, nickname);
+        if (existing != null && !isSameEndpoint(existing, player)) {
+            return false;
         }
 
-        currentPlayer = new PlayerInfo(nickname, peer.peer().peerAddress().inetAddress(), 
-                                   peer.peer().peerAddress().tcpPort());
-        loggedPlayers.add(currentPlayer);
-        DHTOperations.put(peer, DHTOperations.LOGGED_PLAYERS_KEY, (java.io.Serializable) loggedPlayers);
+        if (!PresenceRegistry.heartbeat(peer, player)) {
+            return false;
+        }
+        currentPlayer = player;
 
+        subscribe(TopicRegistry.LOBBY);
         refreshPublicChallenges();
 
         logger.info("Logged in as: {}", nickname);
@@ -127,251 +299,777 @@ public class P2PNetworkManager {
     public void logout() {
         if (currentPlayer == null) return;
 
+        cancelMatchmaking();
+        stopSpectating();
         if (currentChallenge != null) {
             leaveChallenge();
         }
 
-        Set<PlayerInfo> loggedPlayers = getLoggedPlayers();
-        loggedPlayers.removeIf(p -> p.getNickname().equals(currentPlayer.getNickname()));
-        DHTOperations.put(peer, DHTOperations.LOGGED_PLAYERS_KEY, (java.io.Serializable) loggedPlayers);
+        for (String topic : subscriptions) {
+            TopicRegistry.unsubscribe(peer, topic, currentPlayer);
+        }
+        subscriptions.clear();
+
+        PresenceRegistry.withdraw(peer, currentPlayer.getNickname());
 
         logger.info("Logged out: {}", currentPlayer.getNickname());
         currentPlayer = null;
     }
 
-    @SuppressWarnings("unchecked")
-    private Set<PlayerInfo> getLoggedPlayers() {
-        Set<PlayerInfo> players = DHTOperations.get(peer, DHTOperations.LOGGED_PLAYERS_KEY, HashSet.class);
-        return players != null ? players : new HashSet<>();
+    private static boolean isSameEndpoint(PlayerInfo a, PlayerInfo b) {
+        return a.getPort() == b.getPort() && Objects.equals(a.getAddress(), b.getAddress());
+    }
+
+    private void sendHeartbeat() {
+        PlayerInfo player = currentPlayer;
+        if (player == null) return;
+        
+        try {
+            PresenceRegistry.heartbeat(peer, player);
+        } catch (Exception e) {
+            logger.warn("Failed to send presence heartbeat: {}", e.getMessage());
+        }
     }
 
     public boolean createChallenge(String name, boolean isPublic, PuzzleGenerator.Difficulty difficulty) {
         if (currentPlayer == null || name == null || name.trim().isEmpty()) {
             return false;
         }
-        if (currentChallenge != null) {
+        if (currentChallenge != null || matchTicket != null) {
             return false;
         }
+        stopSpectating();
 
-        Number160 key = DHTOperations.createChallengeKey(name);
-        if (DHTOperations.get(peer, key, GameSession.class) != null) {
+        if (SessionLog.exists(peer, name)) {
             return false;
         }
 
-        GameSession challenge = new GameSession(name, isPublic, currentPlayer.getNickname(), difficulty);
+        GameBoard libraryBoard = loadLibraryPuzzle(difficulty);
+        GameSession challenge = libraryBoard != null
+                ? new GameSession(name, isPublic, currentPlayer.getNickname(), libraryBoard)
+                : new GameSession(name, isPublic, currentPlayer.getNickname(), difficulty);
         challenge.join(currentPlayer.getNickname());
         
-        if (!DHTOperations.put(peer, key, challenge)) {
+        SessionLog log = SessionLog.create(peer, challenge);
+        if (log == null) {
             return false;
         }
 
+        attachLog(log);
         currentChallenge = challenge;
+        switchSubscription(TopicRegistry.LOBBY, TopicRegistry.challengeTopic(name));
 
         if (isPublic) {
-            addToPublicChallenges(name);
+            saveSummary(challenge);
+            publish(TopicRegistry.LOBBY, new GameMessage(GameMessage.Type.PUBLIC_CHALLENGES_UPDATED, name, currentPlayer.getNickname()));
         }
 
         logger.info("Created challenge: {}", name);
         return true;
     }
 
+    private GameBoard loadLibraryPuzzle(PuzzleGenerator.Difficulty difficulty) {
+        if (puzzleLibrary == null) return null;
+        try {
+            return puzzleLibrary.random(difficulty);
+        } catch (IOException e) {
+            logger.warn("Puzzle library read failed, generating instead: {}", e.getMessage());
+            return null;
+        }
+    }
+
     public boolean joinChallenge(String name) {
-        if (currentPlayer == null || currentChallenge != null) {
+        if (currentPlayer == null || currentChallenge != null || matchTicket != null) {
             return false;
         }
+        stopSpectating();
 
-        Number160 key = DHTOperations.createChallengeKey(name);
-        GameSession challenge = DHTOperations.get(peer, key, GameSession.class);
+        SessionLog log = SessionLog.open(peer, name);
         
-        if (challenge == null || challenge.getStatus() == GameSession.Status.FINISHED) {
+        if (log == null || log.getStatus() == GameSession.Status.FINISHED) {
+            return false;
+        }
+
+        if (log.append(SessionEvent.join(currentPlayer.getNickname())) <= 0) {
             return false;
         }
 
-        if (!challenge.join(currentPlayer.getNickname())) {
+        GameSession challenge = log.snapshot();
+        attachLog(log);
+        currentChallenge = challenge;
+        switchSubscription(TopicRegistry.LOBBY, TopicRegistry.challengeTopic(name));
+        openParticipantConnections(challenge);
+        saveSummary(challenge);
+        notifyChallenge(GameMessage.Type.PLAYER_JOINED);
+
+        logger.info("Joined challenge: {}", name);
+        return true;
+    }
+
+    public boolean enqueueMatch(PuzzleGenerator.Difficulty difficulty, int groupSize) {
+        if (groupSize < MatchmakingQueue.MIN_GROUP_SIZE || groupSize > MatchmakingQueue.MAX_GROUP_SIZE) {
             return false;
         }
 
-        if (!DHTOperations.put(peer, key, challenge)) {
+        MatchTicket ticket;
+        synchronized (this) {
+            if (currentPlayer == null || currentChallenge != null || matchTicket != null) {
+                return false;
+            }
+            ticket = new MatchTicket(currentPlayer, difficulty, groupSize);
+            matchTicket = ticket;
+            lastTicketRefresh = ticket.getEnqueuedAt();
+        }
+
+        stopSpectating();
+        if (!MatchmakingQueue.enqueue(peer, ticket)) {
+            clearTicket(ticket);
             return false;
         }
 
-        currentChallenge = challenge;
+        logger.info("Queued for matchmaking: {}", ticket);
+        return true;
+    }
+
+    public boolean cancelMatchmaking() {
+        MatchTicket ticket = matchTicket;
+        if (ticket == null) return true;
+
+        String match = MatchmakingQueue.claim(peer, ticket, MatchmakingQueue.CANCELLED)
+                ? MatchmakingQueue.CANCELLED
+                : MatchmakingQueue.claimOf(peer, ticket);
+        if (match == null || match.equals(MatchmakingQueue.CANCELLED)) {
+            MatchmakingQueue.withdraw(peer, ticket);
+            clearTicket(ticket);
+            logger.info("Left matchmaking queue");
+            return true;
+        }
+
+        enterMatch(ticket, match);
+        return false;
+    }
+
+    private synchronized boolean clearTicket(MatchTicket ticket) {
+        if (matchTicket != ticket) return false;
+        matchTicket = null;
+        return true;
+    }
+
+    private void matchmakingTick() {
+        MatchTicket ticket = matchTicket;
+        if (ticket == null || currentPlayer == null) return;
+        if (!matchmakingRound.compareAndSet(false, true)) return;
+
+        try {
+            String match = MatchmakingQueue.claimOf(peer, ticket);
+            if (match == null) {
+                long now = System.currentTimeMillis();
+                if (now - lastTicketRefresh > MatchmakingQueue.TICKET_REFRESH_MS) {
+                    MatchmakingQueue.enqueue(peer, ticket);
+                    lastTicketRefresh = now;
+                }
+                match = formMatch(ticket);
+            }
+            if (match != null && !match.equals(MatchmakingQueue.CANCELLED)) {
+                enterMatch(ticket, match);
+            }
+        } catch (Exception e) {
+            logger.warn("Matchmaking round failed: {}", e.getMessage());
+        } finally {
+            matchmakingRound.set(false);
+        }
+    }
+
+    private String formMatch(MatchTicket ticket) {
+        String name = "match-" + UUID.randomUUID().toString().substring(0, 8);
+        List<MatchTicket> group = MatchmakingQueue.formGroup(peer, ticket, name);
+        if (group == null) return null;
+
+        String owner = ticket.getPlayer().getNickname();
+        GameBoard libraryBoard = loadLibraryPuzzle(ticket.getDifficulty());
+        GameSession challenge = libraryBoard != null
+                ? new GameSession(name, false, owner, libraryBoard)
+                : new GameSession(name, false, owner, ticket.getDifficulty());
+        for (MatchTicket member : group) {
+            challenge.join(member.getPlayer().getNickname());
+        }
+        challenge.start(owner);
+
+        if (SessionLog.create(peer, challenge) == null) {
+            MatchmakingQueue.release(peer, group);
+            return null;
+        }
+
+        GameMessage found = new GameMessage(GameMessage.Type.MATCH_FOUND, name, owner);
+        for (MatchTicket member : group) {
+            if (!member.equals(ticket)) {
+                sendToPlayer(member.getPlayer(), found);
+            }
+        }
+        return name;
+    }
+
+    private boolean enterMatch(MatchTicket ticket, String name) {
+        SessionLog log = SessionLog.open(peer, name);
+        if (log == null) {
+            logger.debug("Match {} not stored yet, retrying", name);
+            return false;
+        }
+
+        GameSession challenge = log.snapshot();
+        synchronized (this) {
+            if (!clearTicket(ticket)) {
+                logger.debug("Ticket {} no longer queued, not entering {}", ticket, name);
+                return false;
+            }
+            attachLog(log);
+            currentChallenge = challenge;
+        }
+        MatchmakingQueue.withdraw(peer, ticket);
+        switchSubscription(TopicRegistry.LOBBY, TopicRegistry.challengeTopic(name));
+        openParticipantConnections(challenge);
         notifyChallenge(GameMessage.Type.PLAYER_JOINED);
 
-        logger.info("Joined challenge: {}", name);
+        logger.info("Matched into challenge: {}", name);
+        GameMessage found = new GameMessage(GameMessage.Type.MATCH_FOUND, name, ticket.getPlayer().getNickname());
+        for (P2PMessageHandler listener : listeners) {
+            listener.onMessageReceived(null, found);
+        }
         return true;
     }
 
+    public boolean spectate(String name) {
+        if (currentPlayer == null || currentChallenge != null || matchTicket != null) {
+            return false;
+        }
+        stopSpectating();
+
+        SessionLog log = SessionLog.open(peer, name);
+        if (log == null) {
+            return false;
+        }
+        spectatedLog = log;
+        lastSpectatorUpdate = System.currentTimeMillis();
+        subscribe(TopicRegistry.spectatorTopic(name));
+
+        logger.info("Spectating challenge: {}", name);
+        return true;
+    }
+
+    public void stopSpectating() {
+        SessionLog log = spectatedLog;
+        if (log == null) return;
+        spectatedLog = null;
+
+        String name = log.snapshot().getName();
+        String topic = TopicRegistry.spectatorTopic(name);
+        PlayerInfo player = currentPlayer;
+        if (subscriptions.remove(topic) && player != null) {
+            TopicRegistry.unsubscribe(peer, topic, player);
+        }
+        spectatorRelay.forget(name);
+        logger.info("Stopped spectating: {}", name);
+    }
+
+    private void handleSpectatorUpdate(SpectatorRelay.Update update) {
+        SessionLog log = spectatedLog;
+        if (log == null || !update.getInstanceId().equals(log.getInstanceId())) return;
+
+        if (log.accept(update.getEvent())) {
+            spectatorRelay.relay(update);
+            lastSpectatorUpdate = System.currentTimeMillis();
+            fireSpectatorUpdate(update.getChallengeName());
+        }
+    }
+
+    private void spectatorCatchUp() {
+        SessionLog log = spectatedLog;
+        if (log == null || log.getStatus() == GameSession.Status.FINISHED) return;
+        if (System.currentTimeMillis() - lastSpectatorUpdate < SpectatorRelay.IDLE_CATCH_UP_MS) return;
+
+        try {
+            lastSpectatorUpdate = System.currentTimeMillis();
+            if (log.catchUp()) {
+                fireSpectatorUpdate(log.snapshot().getName());
+            }
+        } catch (Exception e) {
+            logger.warn("Spectator catch-up failed: {}", e.getMessage());
+        }
+    }
+
+    private void fireSpectatorUpdate(String name) {
+        PlayerInfo player = currentPlayer;
+        GameMessage updated = new GameMessage(GameMessage.Type.SPECTATE_UPDATED, name,
+                player != null ? player.getNickname() : null);
+        for (P2PMessageHandler listener : listeners) {
+            listener.onMessageReceived(null, updated);
+        }
+    }
+
     public boolean leaveChallenge() {
         if (currentPlayer == null || currentChallenge == null) {
             return false;
         }
+        pendingMoves.clear();
 
         String name = currentChallenge.getName();
-        Number160 key = DHTOperations.createChallengeKey(name);
+        SessionLog log = sessionLog;
         
-        GameSession challenge = DHTOperations.get(peer, key, GameSession.class);
-        if (challenge != null) {
-            challenge.leave(currentPlayer.getNickname());
+        if (log != null && log.append(SessionEvent.leave(currentPlayer.getNickname())) >= 0) {
+            GameSession challenge = log.snapshot();
             
             if (challenge.getParticipantCount() == 0) {
-                DHTOperations.remove(peer, key);
+                log.delete();
                 if (challenge.isPublic()) {
-                    removeFromPublicChallenges(name);
+                    PublicChallengeIndex.withdraw(peer, name);
+                    publish(TopicRegistry.LOBBY, new GameMessage(GameMessage.Type.PUBLIC_CHALLENGES_UPDATED, name, currentPlayer.getNickname()));
                 }
             } else {
-                DHTOperations.put(peer, key, challenge);
+                saveSummary(challenge);
                 notifyChallenge(GameMessage.Type.PLAYER_LEFT);
             }
         }
 
+        detachLog();
         currentChallenge = null;
+        batcher.flushAll();
+        outbound.awaitIdle(PriorityLanes.Lane.GAME, LEAVE_DRAIN_MS);
+        connections.closeAll();
+        participantAddresses.clear();
+        missingParticipants.clear();
+        lastParticipantLookup = 0;
+        switchSubscription(TopicRegistry.challengeTopic(name), TopicRegistry.LOBBY);
         logger.info("Left challenge: {}", name);
         return true;
     }
 
     public boolean startChallenge() {
-        if (currentPlayer == null || currentChallenge == null) {
-            return false;
-        }
-
-        Number160 key = DHTOperations.createChallengeKey(currentChallenge.getName());
-        GameSession challenge = DHTOperations.get(peer, key, GameSession.class);
-        
-        if (challenge == null || !challenge.start(currentPlayer.getNickname())) {
+        SessionLog log = sessionLog;
+        if (currentPlayer == null || currentChallenge == null || log == null) {
             return false;
         }
 
-        if (!DHTOperations.put(peer, key, challenge)) {
+        if (log.append(SessionEvent.start(currentPlayer.getNickname())) <= 0) {
             return false;
         }
 
+        GameSession challenge = log.snapshot();
         currentChallenge = challenge;
+        saveSummary(challenge);
         notifyChallenge(GameMessage.Type.CHALLENGE_STARTED);
 
         logger.info("Started challenge: {}", currentChallenge.getName());
         return true;
     }
 
+    private void attachLog(SessionLog log) {
+        sessionLog = log;
+        resultReported = false;
+        PlayerInfo self = currentPlayer;
+        if (self != null) {
+            moveSequence.set(log.snapshot().getLastMoveSequence(self.getNickname()));
+        }
+        ReplayRecorder started = startRecorder(log);
+        
+        log.setListener(new SessionLog.Listener() {
+            @Override
+            public void eventApplied(SessionEvent event, GameSession session) {
+                PlayerInfo player = currentPlayer;
+                if (player != null && player.getNickname().equals(event.getPlayer())) {
+                    spectatorRelay.publish(session.getName(), session.getInstanceId(), event);
+                }
+                if (started != null) {
+                    started.record(event);
+                    if (session.getStatus() == GameSession.Status.FINISHED) {
+                        started.close();
+                    }
+                }
+            }
+
+            @Override
+            public void stateReplaced(GameSession session) {
+                if (started != null) {
+                    started.resync(session);
+                }
+            }
+        });
+    }
+
+    private ReplayRecorder startRecorder(SessionLog log) {
+        if (replayDirectory == null) return null;
+        
+        try {
+            ReplayRecorder started = ReplayRecorder.start(replayDirectory, log.snapshot());
+            recorder = started;
+            lastReplay = started.getFile();
+            return started;
+        } catch (IOException e) {
+            logger.warn("Replay recording disabled for this match: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void detachLog() {
+        SessionLog log = sessionLog;
+        if (log != null) {
+            log.setListener(null);
+        }
+        sessionLog = null;
+        
+        ReplayRecorder active = recorder;
+        if (active != null) {
+            active.close();
+        }
+        recorder = null;
+    }
+
+    public int applyLocalMove(int row, int col, int number) {
+        GameSession challenge = currentChallenge;
+        if (currentPlayer == null || challenge == null) {
+            return 0;
+        }
+
+        pendingMoves.add(new int[]{row, col, number});
+        return challenge.previewPlace(currentPlayer.getNickname(), row, col, number);
+    }
+
     public int placeNumber(int row, int col, int number) {
         if (currentPlayer == null || currentChallenge == null) {
             return 0;
         }
 
-        Number160 key = DHTOperations.createChallengeKey(currentChallenge.getName());
+        int result;
+        try {
+            result = commitMove(row, col, number);
+        } finally {
+            pendingMoves.removeIf(move -> move[0] == row && move[1] == col && move[2] == number);
+        }
         
-        for (int attempt = 0; attempt < 3; attempt++) {
-            GameSession challenge = DHTOperations.get(peer, key, GameSession.class);
-            
-            if (challenge == null) {
-                return 0;
-            }
+        if (result < 0) {
+            refreshCurrentChallenge();
+        }
+        return result;
+    }
 
-            int scoreChange = challenge.placeNumber(currentPlayer.getNickname(), row, col, number);
-            
-            GameSession result = DHTOperations.putWithVersion(peer, key, challenge);
-            
-            if (result != null && result.getVersion() >= challenge.getVersion()) {
-                currentChallenge = result;
-                
-                GameMessage.Type msgType = result.getStatus() == GameSession.Status.FINISHED 
-                        ? GameMessage.Type.CHALLENGE_FINISHED 
-                        : GameMessage.Type.NUMBER_PLACED;
-                notifyChallenge(msgType);
-                
-                return scoreChange;
-            }
-            
-            logger.debug("Version conflict in placeNumber, retrying... (attempt {})", attempt + 1);
+    private int commitMove(int row, int col, int number) {
+        SessionLog log = sessionLog;
+        if (log == null) {
+            return -1;
+        }
+        
+        int scoreChange = log.append(SessionEvent.place(currentPlayer.getNickname(), row, col, number,
+                moveSequence.incrementAndGet()));
+        if (scoreChange < 0) {
+            logger.warn("Failed to place number after retries due to conflicts");
+            return -1;
+        }
+        
+        GameSession result = log.snapshot();
+        reportIfFinished(result);
+        GameMessage.Type msgType = result.getStatus() == GameSession.Status.FINISHED 
+                ? GameMessage.Type.CHALLENGE_FINISHED 
+                : GameMessage.Type.NUMBER_PLACED;
+        currentChallenge = result;
+        if (msgType == GameMessage.Type.CHALLENGE_FINISHED) {
+            saveSummary(result);
         }
+        notifyChallenge(msgType);
         
-        logger.warn("Failed to place number after retries due to conflicts");
-        return 0;
+        return scoreChange;
     }
 
     public void refreshCurrentChallenge() {
-        if (currentChallenge == null) return;
+        SessionLog log = sessionLog;
+        if (currentChallenge == null || log == null) return;
         
-        Number160 key = DHTOperations.createChallengeKey(currentChallenge.getName());
-        GameSession challenge = DHTOperations.get(peer, key, GameSession.class);
-        if (challenge != null) {
-            currentChallenge = challenge;
+        log.catchUp();
+        GameSession challenge = log.snapshot();
+        reportIfFinished(challenge);
+        currentChallenge = challenge;
+        if (challenge.getStatus() != GameSession.Status.FINISHED
+                && System.currentTimeMillis() - lastIndexPublish > PublicChallengeIndex.REPUBLISH_INTERVAL_MS) {
+            saveSummary(challenge);
         }
     }
 
-    @SuppressWarnings("unchecked")
-    public void refreshPublicChallenges() {
-        Set<String> challenges = DHTOperations.get(peer, DHTOperations.PUBLIC_CHALLENGES_KEY, HashSet.class);
-        publicChallenges = challenges != null ? challenges : new HashSet<>();
+    private void keepSessionAlive() {
+        SessionLog log = sessionLog;
+        if (log == null || log.getStatus() == GameSession.Status.FINISHED || !log.isKeepAliveDue()) return;
+        
+        try {
+            if (!log.keepAlive()) {
+                logger.debug("Session keep-alive failed, retrying in {} ms", SessionLog.KEEP_ALIVE_RETRY_MS);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to refresh session TTL: {}", e.getMessage());
+        }
     }
 
-    private void addToPublicChallenges(String name) {
-        refreshPublicChallenges();
-        publicChallenges.add(name);
-        DHTOperations.put(peer, DHTOperations.PUBLIC_CHALLENGES_KEY, (java.io.Serializable) publicChallenges);
-        notifyAllPlayers(new GameMessage(GameMessage.Type.PUBLIC_CHALLENGES_UPDATED, name, currentPlayer.getNickname()));
+    private void reportIfFinished(GameSession confirmed) {
+        PlayerInfo player = currentPlayer;
+        if (player == null || resultReported || confirmed.getStatus() != GameSession.Status.FINISHED) return;
+        if (!confirmed.isParticipating(player.getNickname())) return;
+        
+        resultReported = true;
+        leaderboardReporter.submit(player.getNickname(), player.getNickname().equals(confirmed.getWinner()),
+                confirmed.getScore(player.getNickname()));
+        maintenance.execute(this::flushLeaderboard);
     }
 
-    private void removeFromPublicChallenges(String name) {
-        refreshPublicChallenges();
-        publicChallenges.remove(name);
-        DHTOperations.put(peer, DHTOperations.PUBLIC_CHALLENGES_KEY, (java.io.Serializable) publicChallenges);
-        notifyAllPlayers(new GameMessage(GameMessage.Type.PUBLIC_CHALLENGES_UPDATED, name, currentPlayer.getNickname()));
+    private void flushLeaderboard() {
+        if (!leaderboardReporter.hasPending()) return;
+        try {
+            leaderboardReporter.flush();
+        } catch (Exception e) {
+            logger.warn("Failed to flush leaderboard results: {}", e.getMessage());
+        }
+    }
+
+    public void refreshPublicChallenges() {
+        PublicChallengeIndex.Listing listing = PublicChallengeIndex.list(peer, publicChallenges);
+        if (listing.getUnreachableShards() > 0) {
+            logger.warn("{} public challenge shards unreachable, keeping their last known entries",
+                    listing.getUnreachableShards());
+        }
+        publicChallenges = listing;
+    }
+
+    private void saveSummary(GameSession challenge) {
+        if (challenge.isPublic() && PublicChallengeIndex.publish(peer, challenge.toSummary())) {
+            lastIndexPublish = System.currentTimeMillis();
+        }
     }
 
     private void notifyChallenge(GameMessage.Type type) {
         if (currentChallenge == null || currentPlayer == null) return;
         
-        GameMessage msg = new GameMessage(type, currentChallenge.getName(), currentPlayer.getNickname());
+        SessionLog log = sessionLog;
+        GameMessage msg = new GameMessage(type, currentChallenge.getName(), currentPlayer.getNickname(), null,
+                log != null ? log.getLastSequence() : 0);
         
+        boolean allConnected = true;
         for (String participant : currentChallenge.getParticipants()) {
-            if (!participant.equals(currentPlayer.getNickname())) {
-                sendToPlayer(participant, msg);
+            if (!participant.equalsIgnoreCase(currentPlayer.getNickname()) && !connections.contains(participant)) {
+                allConnected = false;
+                break;
+            }
+        }
+        if (!allConnected && System.currentTimeMillis() - lastParticipantLookup >= PARTICIPANT_LOOKUP_INTERVAL_MS) {
+            openParticipantConnections(currentChallenge);
+        }
+        
+        for (String participant : currentChallenge.getParticipants()) {
+            if (!participant.equalsIgnoreCase(currentPlayer.getNickname())) {
+                batcher.enqueue(participant, msg);
             }
         }
     }
 
-    private void notifyAllPlayers(GameMessage msg) {
-        for (PlayerInfo player : getLoggedPlayers()) {
-            if (!player.getNickname().equals(currentPlayer.getNickname())) {
-                sendToPlayer(player, msg);
+    private void sendToParticipant(String nickname, Object frame) {
+        FuturePeerConnection connection = connections.get(nickname);
+        if (connection != null) {
+            sendOverConnection(nickname, connection, frame);
+            return;
+        }
+        
+        PlayerInfo player = participantAddress(nickname);
+        if (player != null) {
+            sendToPlayer(player, frame);
+        } else {
+            logger.debug("No address known for participant {}", nickname);
+        }
+    }
+
+    private PlayerInfo participantAddress(String nickname) {
+        String key = nickname.toLowerCase();
+        PlayerInfo known = participantAddresses.get(key);
+        if (known != null) return known;
+        
+        long now = System.currentTimeMillis();
+        Long missedAt = missingParticipants.get(key);
+        if (missedAt != null && now - missedAt < PARTICIPANT_LOOKUP_INTERVAL_MS) return null;
+        
+        PlayerInfo present = PresenceRegistry.lookup(peer, nickname);
+        if (present != null) {
+            participantAddresses.put(key, present);
+            missingParticipants.remove(key);
+        } else {
+            missingParticipants.put(key, now);
+        }
+        return present;
+    }
+
+    private void openParticipantConnections(GameSession challenge) {
+        PlayerInfo self = currentPlayer;
+        if (self == null) return;
+        
+        lastParticipantLookup = System.currentTimeMillis();
+        Set<String> participants = new HashSet<>();
+        for (String participant : challenge.getParticipants()) {
+            participants.add(participant.toLowerCase());
+        }
+        
+        for (PlayerInfo subscriber : TopicRegistry.subscribers(peer, TopicRegistry.challengeTopic(challenge.getName()))) {
+            String key = subscriber.getNickname().toLowerCase();
+            if (!subscriber.equals(self) && participants.contains(key)) {
+                participantAddresses.put(key, subscriber);
+                missingParticipants.remove(key);
+                connections.open(subscriber.getNickname(), addressOf(subscriber));
             }
         }
     }
 
-    private void sendToPlayer(String nickname, GameMessage msg) {
-        for (PlayerInfo player : getLoggedPlayers()) {
-            if (player.getNickname().equals(nickname)) {
-                sendToPlayer(player, msg);
-                return;
+    private void publish(String topic, GameMessage msg) {
+        PlayerInfo self = currentPlayer;
+        if (self == null) return;
+        
+        outbound.submit(PriorityLanes.laneOf(msg.getType()), topic, () -> deliver(topic, msg, self));
+    }
+
+    private void deliver(String topic, GameMessage msg, PlayerInfo self) {
+        List<PlayerInfo> subscribers = TopicRegistry.subscribers(peer, topic);
+        if (gossip.shouldGossip(subscribers.size())) {
+            gossip.announce(topic, msg, self, subscribers);
+            return;
+        }
+        
+        for (PlayerInfo subscriber : subscribers) {
+            if (!subscriber.equals(self)) {
+                sendToPlayer(subscriber, msg);
             }
         }
     }
 
-    private void sendToPlayer(PlayerInfo player, GameMessage msg) {
+    private void subscribe(String topic) {
+        PlayerInfo player = currentPlayer;
+        if (player == null) return;
+        
+        subscriptions.add(topic);
+        TopicRegistry.subscribe(peer, topic, player);
+    }
+
+    private void switchSubscription(String from, String to) {
+        PlayerInfo player = currentPlayer;
+        if (player == null) return;
+        
+        if (subscriptions.remove(from)) {
+            TopicRegistry.unsubscribe(peer, from, player);
+        }
+        subscribe(to);
+    }
+
+    private void renewSubscriptions() {
+        PlayerInfo player = currentPlayer;
+        if (player == null) return;
+        
         try {
-            PeerAddress address = new PeerAddress(Number160.createHash(player.getNickname()), 
-                    player.getAddress(), player.getPort(), player.getPort());
-            FutureDirect future = peer.peer().sendDirect(address).object(msg).start();
-            future.awaitUninterruptibly(5000);
+            if (!TopicRegistry.subscribeAll(peer, subscriptions, player)) {
+                logger.warn("Some topic leases could not be renewed");
+            }
         } catch (Exception e) {
+            logger.warn("Failed to renew topic leases: {}", e.getMessage());
+        }
+    }
+
+    private void sendToPlayer(PlayerInfo player, Object msg) {
+        if (suspects.isSuspected(player.getNickname())) {
+            logger.debug("Skipping suspected peer {}", player.getNickname());
+            return;
+        }
+        
+        try {
+            FutureDirect future = peer.peer().sendDirect(addressOf(player)).object(msg).start();
+            if (!future.awaitUninterruptibly(5000) || future.isFailed()) {
+                suspects.suspect(player.getNickname());
+                logger.debug("Suspecting {}: {}", player.getNickname(), future.failedReason());
+            }
+        } catch (Exception e) {
+            suspects.suspect(player.getNickname());
             logger.debug("Failed to send message to {}: {}", player.getNickname(), e.getMessage());
         }
     }
 
+    private void sendOverConnection(String nickname, FuturePeerConnection connection, Object msg) {
+        if (suspects.isSuspected(nickname)) return;
+        
+        try {
+            FutureDirect future = peer.peer().sendDirect(connection).object(msg).start();
+            if (!future.awaitUninterruptibly(5000) || future.isFailed()) {
+                connections.close(nickname);
+                suspects.suspect(nickname);
+                logger.debug("Direct connection to {} failed: {}", nickname, future.failedReason());
+            }
+        } catch (Exception e) {
+            connections.close(nickname);
+            suspects.suspect(nickname);
+            logger.debug("Failed to send message to {}: {}", nickname, e.getMessage());
+        }
+    }
+
+    private static PeerAddress addressOf(PlayerInfo player) {
+        Number160 peerId = player.getPeerId() != null ? player.getPeerId() : Number160.createHash(player.getNickname());
+        return new PeerAddress(peerId, player.getAddress(), player.getPort(), player.getPort());
+    }
+
     public void shutdown() {
         logout();
+        maintenance.shutdownNow();
+        flushLeaderboard();
+        connections.closeAll();
+        gossip.shutdown();
+        batcher.shutdown();
+        spectatorRelay.shutdown();
+        outbound.shutdown();
+        inbound.shutdown();
         peer.shutdown();
+        if (puzzleLibrary != null) {
+            try {
+                puzzleLibrary.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close puzzle library: {}", e.getMessage());
+            }
+        }
         logger.info("Client shutdown");
     }
 
     public PlayerInfo getCurrentPlayer() { return currentPlayer; }
+    public Path getLastReplay() { return lastReplay; }
+    
+    public List<PlayerStats> getLeaderboard(int limit) {
+        return Leaderboard.top(peer, limit);
+    }
     public GameSession getCurrentChallenge() { return currentChallenge; }
-    public Set<String> getPublicChallenges() { return new HashSet<>(publicChallenges); }
+    public List<ChallengeSummary> getPublicChallengeSummaries() { return publicChallenges.getSummaries(); }
+    
+    public PublicChallengeIndex.Page getPublicChallengePage(PuzzleGenerator.Difficulty difficulty,
+                                                            GameSession.Status status, int page, int pageSize) {
+        return PublicChallengeIndex.page(publicChallenges, difficulty, status, page, pageSize);
+    }
     
     public GameBoard getPlayerBoard() {
-        if (currentChallenge == null || currentPlayer == null) return null;
-        return currentChallenge.getPlayerBoard(currentPlayer.getNickname());
+        GameSession challenge = currentChallenge;
+        PlayerInfo player = currentPlayer;
+        if (challenge == null || player == null) return null;
+        
+        GameBoard confirmed = challenge.getPlayerBoard(player.getNickname());
+        if (confirmed == null || pendingMoves.isEmpty()) return confirmed;
+        
+        GameBoard overlay = confirmed.copy();
+        for (int[] move : pendingMoves) {
+            if (overlay.getSolution(move[0], move[1]) == move[2]) {
+                overlay.placeNumber(move[0], move[1], move[2]);
+            }
+        }
+        return overlay;
+    }
+    
+    public HintEngine.Hint getHint() {
+        GameBoard board = getPlayerBoard();
+        if (board == null) return null;
+        if (hintEngine == null || !hintEngine.matches(board)) {
+            hintEngine = new HintEngine(board.getLayout());
+        }
+        return hintEngine.nextHint(board);
     }
     
     public int getPlayerScore() {
@@ -383,6 +1081,19 @@ public class P2PNetworkManager {
         return currentPlayer != null;
     }
 
+    public GameSession getSpectatedChallenge() {
+        SessionLog log = spectatedLog;
+        return log != null ? log.snapshot() : null;
+    }
+
+    public boolean isSpectating() {
+        return spectatedLog != null;
+    }
+
+    public boolean isMatchmaking() {
+        return matchTicket != null;
+    }
+
     public boolean isInChallenge() {
         return currentChallenge != null;
     }
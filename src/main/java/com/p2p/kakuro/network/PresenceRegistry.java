@@ -0,0 +1,28 @@
+package com.p2p.kakuro.network;
+
+import com.p2p.kakuro.challenge.PlayerInfo;
+import net.tomp2p.dht.PeerDHT;
+import net.tomp2p.peers.Number160;
+
+public class PresenceRegistry {
+
+    public static final int PRESENCE_TTL_SECONDS = 60;
+    public static final long HEARTBEAT_INTERVAL_MS = PRESENCE_TTL_SECONDS * 1000L / 3;
+
+    public static boolean heartbeat(PeerDHT peer, PlayerInfo player) {
+        return DHTOperations.putContent(peer, presenceKey(player.getNickname()), Number160.ZERO,
+                player, PRESENCE_TTL_SECONDS);
+    }
+
+    public static PlayerInfo lookup(PeerDHT peer, String nickname) {
+        return DHTOperations.get(peer, presenceKey(nickname), PlayerInfo.class);
+    }
+
+    public static boolean withdraw(PeerDHT peer, String nickname) {
+        return DHTOperations.remove(peer, presenceKey(nickname));
+    }
+
+    private static Number160 presenceKey(String nickname) {
+        return Number160.createHash("presence_" + nickname.trim().toLowerCase());
+    }
+}
@@ -0,0 +1,185 @@
+package com.p2p.kakuro.network;
+
+import com.p2p.kakuro.network.P2PMessageHandler.GameMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+public class PriorityLanes {
+    private static final Logger logger = LoggerFactory.getLogger(PriorityLanes.class);
+
+    public static final int WORKERS = 4;
+    public static final String UNKEYED = "";
+
+    public enum Lane {
+        GAME(4),
+        LOBBY(1);
+
+        private final int weight;
+
+        Lane(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static class LaneQueue {
+        final Map<String, Queue<Runnable>> tasks = new HashMap<>();
+        final Queue<String> ready = new ArrayDeque<>();
+        final Set<String> active = new HashSet<>();
+        int pending;
+        int credit;
+    }
+
+    private final Map<Lane, LaneQueue> lanes;
+    private final List<Thread> workers;
+    private volatile boolean stopped;
+
+    public PriorityLanes(String name) {
+        this.lanes = new EnumMap<>(Lane.class);
+        for (Lane lane : Lane.values()) {
+            lanes.put(lane, new LaneQueue());
+        }
+        this.workers = new ArrayList<>(WORKERS);
+        for (int i = 0; i < WORKERS; i++) {
+            Thread thread = new Thread(this::work, name + "-" + i);
+            thread.setDaemon(true);
+            workers.add(thread);
+            thread.start();
+        }
+    }
+
+    public static Lane laneOf(GameMessage.Type type) {
+        switch (type) {
+            case PUBLIC_CHALLENGES_UPDATED:
+            case SPECTATE_UPDATED:
+                return Lane.LOBBY;
+            default:
+                return Lane.GAME;
+        }
+    }
+
+    public static String keyOf(GameMessage message) {
+        return message.getChallengeName() != null ? message.getChallengeName().toLowerCase() : UNKEYED;
+    }
+
+    public void submit(Lane lane, Runnable task) {
+        submit(lane, UNKEYED, task);
+    }
+
+    public synchronized void submit(Lane lane, String key, Runnable task) {
+        if (stopped) return;
+        LaneQueue queue = lanes.get(lane);
+        Queue<Runnable> tasks = queue.tasks.get(key);
+        if (tasks == null) {
+            tasks = new ArrayDeque<>();
+            queue.tasks.put(key, tasks);
+            if (!queue.active.contains(key)) {
+                queue.ready.add(key);
+            }
+        }
+        tasks.add(task);
+        queue.pending++;
+        notifyAll();
+    }
+
+    public synchronized int pending(Lane lane) {
+        return lanes.get(lane).pending;
+    }
+
+    public synchronized boolean awaitIdle(Lane lane, long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        LaneQueue queue = lanes.get(lane);
+        try {
+            while (queue.pending > 0 || !queue.active.isEmpty()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) return false;
+                wait(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public void shutdown() {
+        stopped = true;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    private void work() {
+        while (!stopped) {
+            Lane lane;
+            String key;
+            Runnable task;
+            try {
+                synchronized (this) {
+                    while ((lane = pick()) == null) {
+                        wait();
+                    }
+                    LaneQueue queue = lanes.get(lane);
+                    key = queue.ready.poll();
+                    Queue<Runnable> tasks = queue.tasks.get(key);
+                    task = tasks.poll();
+                    if (tasks.isEmpty()) {
+                        queue.tasks.remove(key);
+                    }
+                    queue.pending--;
+                    queue.active.add(key);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            try {
+                task.run();
+            } catch (Exception e) {
+                logger.warn("{} task for '{}' failed: {}", lane, key, e.getMessage());
+            } finally {
+                synchronized (this) {
+                    LaneQueue queue = lanes.get(lane);
+                    queue.active.remove(key);
+                    if (queue.tasks.containsKey(key)) {
+                        queue.ready.add(key);
+                    }
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    private Lane pick() {
+        int total = 0;
+        Lane best = null;
+        for (Lane lane : Lane.values()) {
+            if (!isRunnable(lane)) continue;
+            LaneQueue queue = lanes.get(lane);
+            queue.credit += lane.weight;
+            total += lane.weight;
+            if (best == null || queue.credit > lanes.get(best).credit) {
+                best = lane;
+            }
+        }
+        if (best != null) {
+            lanes.get(best).credit -= total;
+        }
+        return best;
+    }
+
+    private boolean isRunnable(Lane lane) {
+        LaneQueue queue = lanes.get(lane);
+        if (queue.ready.isEmpty()) return false;
+        return lane != Lane.LOBBY || queue.active.size() < WORKERS - 1;
+    }
+}
@@ -0,0 +1,120 @@
+package com.p2p.kakuro.network;
+
+import com.p2p.kakuro.challenge.ChallengeSummary;
+import com.p2p.kakuro.challenge.GameSession;
+import com.p2p.kakuro.game.PuzzleGenerator;
+import net.tomp2p.dht.PeerDHT;
+import net.tomp2p.peers.Number160;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class PublicChallengeIndex {
+
+    public static final int SHARD_COUNT = 16;
+    public static final int ENTRY_TTL_SECONDS = 600;
+    public static final long REPUBLISH_INTERVAL_MS = ENTRY_TTL_SECONDS * 1000L / 3;
+
+    private static final List<Number160> SHARD_KEYS = createShardKeys();
+
+    public static final Listing EMPTY = new Listing(Collections.emptyList(), 0);
+
+    public static class Listing {
+        private final List<ChallengeSummary> summaries;
+        private final int unreachableShards;
+
+        Listing(List<ChallengeSummary> summaries, int unreachableShards) {
+            this.summaries = summaries;
+            this.unreachableShards = unreachableShards;
+        }
+
+        public List<ChallengeSummary> getSummaries() { return summaries; }
+        public int getUnreachableShards() { return unreachableShards; }
+    }
+
+    public static class Page {
+        private final List<ChallengeSummary> items;
+        private final int page;
+        private final int pageCount;
+        private final int total;
+        private final int unreachableShards;
+
+        Page(List<ChallengeSummary> items, int page, int pageCount, int total, int unreachableShards) {
+            this.items = items;
+            this.page = page;
+            this.pageCount = pageCount;
+            this.total = total;
+            this.unreachableShards = unreachableShards;
+        }
+
+        public List<ChallengeSummary> getItems() { return items; }
+        public int getPage() { return page; }
+        public int getPageCount() { return pageCount; }
+        public int getTotal() { return total; }
+        public int getUnreachableShards() { return unreachableShards; }
+    }
+
+    public static boolean publish(PeerDHT peer, ChallengeSummary summary) {
+        return DHTOperations.putContent(peer, shardKey(summary.getName()), entryKey(summary.getName()),
+                summary, ENTRY_TTL_SECONDS);
+    }
+
+    public static boolean withdraw(PeerDHT peer, String name) {
+        return DHTOperations.removeContent(peer, shardKey(name), entryKey(name));
+    }
+
+    public static Listing list(PeerDHT peer, Listing previous) {
+        BatchResult<Map<Number160, ChallengeSummary>> result =
+                DHTOperations.getAllContentMaps(peer, SHARD_KEYS, ChallengeSummary.class);
+
+        List<ChallengeSummary> summaries = new ArrayList<>();
+        for (Map<Number160, ChallengeSummary> shard : result.values().values()) {
+            summaries.addAll(shard.values());
+        }
+        Set<Number160> unreachable = new HashSet<>(result.failedKeys());
+        for (ChallengeSummary summary : previous.getSummaries()) {
+            if (unreachable.contains(shardKey(summary.getName()))) {
+                summaries.add(summary);
+            }
+        }
+        Collections.sort(summaries);
+        return new Listing(Collections.unmodifiableList(summaries), unreachable.size());
+    }
+
+    public static Page page(Listing listing, PuzzleGenerator.Difficulty difficulty,
+                            GameSession.Status status, int page, int pageSize) {
+        List<ChallengeSummary> matching = new ArrayList<>();
+        for (ChallengeSummary summary : listing.getSummaries()) {
+            if (difficulty != null && summary.getDifficulty() != difficulty) continue;
+            if (status != null && summary.getStatus() != status) continue;
+            matching.add(summary);
+        }
+
+        int pageCount = Math.max(1, (matching.size() + pageSize - 1) / pageSize);
+        int current = Math.max(0, Math.min(page, pageCount - 1));
+        int from = current * pageSize;
+        int to = Math.min(from + pageSize, matching.size());
+        return new Page(Collections.unmodifiableList(new ArrayList<>(matching.subList(from, to))),
+                current, pageCount, matching.size(), listing.getUnreachableShards());
+    }
+
+    static Number160 shardKey(String name) {
+        return SHARD_KEYS.get(Math.floorMod(name.toLowerCase().hashCode(), SHARD_COUNT));
+    }
+
+    static Number160 entryKey(String name) {
+        return Number160.createHash("public_" + name.toLowerCase());
+    }
+
+    private static List<Number160> createShardKeys() {
+        List<Number160> keys = new ArrayList<>(SHARD_COUNT);
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            keys.add(Number160.createHash("_public_challenges_" + i));
+        }
+        return Collections.unmodifiableList(keys);
+    }
+}
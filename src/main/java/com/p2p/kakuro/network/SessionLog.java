@@ -0,0 +1,285 @@
+package com.p2p.kakuro.network;
+
+import com.p2p.kakuro.challenge.GameSession;
+import com.p2p.kakuro.challenge.SessionEvent;
+import net.tomp2p.dht.PeerDHT;
+import net.tomp2p.peers.Number160;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+public class SessionLog {
+    private static final Logger logger = LoggerFactory.getLogger(SessionLog.class);
+
+    public static final int SNAPSHOT_INTERVAL = 32;
+    public static final int ACTIVE_TTL_SECONDS = 900;
+    public static final int FINISHED_TTL_SECONDS = 300;
+    public static final long KEEP_ALIVE_INTERVAL_MS = ACTIVE_TTL_SECONDS * 1000L / 3;
+    public static final long KEEP_ALIVE_RETRY_MS = 15000;
+    private static final int APPEND_ATTEMPTS = 5;
+
+    public interface Listener {
+        void eventApplied(SessionEvent event, GameSession session);
+
+        void stateReplaced(GameSession session);
+    }
+
+    private final PeerDHT peer;
+    private final Number160 snapshotKey;
+    private final Number160 logKey;
+    private GameSession session;
+    private Number160 snapshotContentKey;
+    private long keptAliveAt;
+    private Listener listener;
+
+    private SessionLog(PeerDHT peer, GameSession session) {
+        this.peer = peer;
+        this.snapshotKey = snapshotKey(session.getName());
+        this.session = session;
+        this.snapshotContentKey = Number160.ZERO;
+        this.keptAliveAt = System.currentTimeMillis();
+        this.logKey = logKey(session);
+    }
+
+    public static boolean exists(PeerDHT peer, String name) {
+        return DHTOperations.get(peer, snapshotKey(name), GameSession.class) != null;
+    }
+
+    public static SessionLog create(PeerDHT peer, GameSession session) {
+        if (!DHTOperations.putContentIfAbsent(peer, snapshotKey(session.getName()), Number160.ZERO, session,
+                ACTIVE_TTL_SECONDS)) {
+            return null;
+        }
+        return new SessionLog(peer, session.copy());
+    }
+
+    public static SessionLog open(PeerDHT peer, String name) {
+        Map.Entry<Number160, GameSession> snapshot = latestSnapshot(peer, snapshotKey(name));
+        if (snapshot == null) return null;
+
+        SessionLog log = new SessionLog(peer, snapshot.getValue());
+        log.snapshotContentKey = snapshot.getKey();
+        log.catchUp();
+        return log;
+    }
+
+    public synchronized void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public synchronized boolean catchUp() {
+        List<SessionEvent> tail = fetchTail();
+        return tail != null && catchUp(tail);
+    }
+
+    public synchronized boolean isKeepAliveDue() {
+        return System.currentTimeMillis() - keptAliveAt >= KEEP_ALIVE_INTERVAL_MS;
+    }
+
+    public synchronized boolean keepAlive() {
+        Map.Entry<Number160, GameSession> stored = latestSnapshot(peer, snapshotKey);
+        if (stored == null || !session.getInstanceId().equals(stored.getValue().getInstanceId())) {
+            logger.warn("Snapshot of {} could not be read, keep-alive will be retried", session.getName());
+            return false;
+        }
+        snapshotContentKey = stored.getKey();
+        
+        List<SessionEvent> tail = fetchTail();
+        if (tail == null) {
+            logger.warn("Log of {} could not be read, keep-alive will be retried", session.getName());
+            return false;
+        }
+        catchUp(tail);
+        if (!touch(tail)) {
+            return false;
+        }
+        keptAliveAt = System.currentTimeMillis();
+        return true;
+    }
+
+    private boolean catchUp(List<SessionEvent> tail) {
+        if (!tail.isEmpty() && tail.get(0).getSequence() > session.getLastSequence() + 1) {
+            reloadSnapshot();
+        }
+
+        boolean changed = false;
+        for (SessionEvent event : tail) {
+            if (event.getSequence() <= session.getLastSequence()) continue;
+            if (event.getSequence() != session.getLastSequence() + 1) break;
+            session.apply(event);
+            fireEventApplied(event);
+            changed = true;
+        }
+        return changed;
+    }
+
+    public synchronized boolean accept(SessionEvent event) {
+        if (event.getSequence() <= session.getLastSequence()) return false;
+        if (event.getSequence() > session.getLastSequence() + 1) return catchUp();
+        
+        session.apply(event);
+        fireEventApplied(event);
+        return true;
+    }
+
+    public synchronized int append(SessionEvent event) {
+        for (int attempt = 0; attempt < APPEND_ATTEMPTS; attempt++) {
+            catchUp();
+            if (session.isDuplicateMove(event)) {
+                logger.debug("Move {} of {} is already in the log", event.getMoveSequence(), event.getPlayer());
+                return event.getPlayer().equals(session.getCellFinder(event.getRow(), event.getCol())) ? 1 : 0;
+            }
+
+            SessionEvent sequenced = event.withSequence(session.getLastSequence() + 1);
+            if (DHTOperations.putContentIfAbsent(peer, logKey, eventKey(sequenced.getSequence()), sequenced,
+                    ACTIVE_TTL_SECONDS)) {
+                int outcome = session.apply(sequenced);
+                fireEventApplied(sequenced);
+                if (session.getStatus() == GameSession.Status.FINISHED) {
+                    compact();
+                    List<SessionEvent> tail = fetchTail();
+                    if (tail != null) {
+                        touch(tail);
+                    }
+                } else if (sequenced.getSequence() % SNAPSHOT_INTERVAL == 0) {
+                    compact();
+                }
+                return outcome;
+            }
+            logger.debug("Sequence {} of {} already taken, catching up (attempt {})",
+                    sequenced.getSequence(), session.getName(), attempt + 1);
+        }
+
+        logger.warn("Failed to append {} to {} after {} attempts", event.getType(), session.getName(), APPEND_ATTEMPTS);
+        return -1;
+    }
+
+    public synchronized GameSession snapshot() {
+        return session.copy();
+    }
+
+    public synchronized long getLastSequence() {
+        return session.getLastSequence();
+    }
+
+    public synchronized String getInstanceId() {
+        return session.getInstanceId();
+    }
+
+    public synchronized GameSession.Status getStatus() {
+        return session.getStatus();
+    }
+
+    public synchronized void delete() {
+        DHTOperations.removeAll(peer, logKey);
+        DHTOperations.removeAll(peer, snapshotKey);
+    }
+
+    private void compact() {
+        Map.Entry<Number160, GameSession> stored = latestSnapshot(peer, snapshotKey);
+        if (stored != null && !session.getInstanceId().equals(stored.getValue().getInstanceId())) return;
+        long from = stored != null ? stored.getValue().getLastSequence() : 0;
+        long upTo = session.getLastSequence();
+        if (from >= upTo) return;
+
+        Number160 contentKey = eventKey(upTo);
+        if (!DHTOperations.putContentIfAbsent(peer, snapshotKey, contentKey, session, ttlSeconds())) {
+            logger.warn("Snapshot of {} at #{} failed, keeping the log", session.getName(), upTo);
+            return;
+        }
+        snapshotContentKey = contentKey;
+        if (stored != null && !stored.getKey().equals(Number160.ZERO)) {
+            DHTOperations.removeContent(peer, snapshotKey, stored.getKey());
+        }
+        for (long sequence = Math.max(1, from); sequence < upTo; sequence++) {
+            DHTOperations.removeContent(peer, logKey, eventKey(sequence));
+        }
+        logger.debug("Compacted {} up to #{}", session.getName(), upTo);
+    }
+
+    private boolean touch(List<SessionEvent> tail) {
+        List<Number160> eventKeys = new ArrayList<>(tail.size());
+        for (SessionEvent event : tail) {
+            eventKeys.add(eventKey(event.getSequence()));
+        }
+        
+        List<Number160> snapshotKeys = new ArrayList<>(2);
+        snapshotKeys.add(Number160.ZERO);
+        if (!snapshotContentKey.equals(Number160.ZERO)) {
+            snapshotKeys.add(snapshotContentKey);
+        }
+        
+        int ttl = ttlSeconds();
+        boolean snapshotTouched = DHTOperations.touch(peer, snapshotKey, snapshotKeys, ttl);
+        return DHTOperations.touch(peer, logKey, eventKeys, ttl) && snapshotTouched;
+    }
+
+    private int ttlSeconds() {
+        return session.getStatus() == GameSession.Status.FINISHED ? FINISHED_TTL_SECONDS : ACTIVE_TTL_SECONDS;
+    }
+
+    private void reloadSnapshot() {
+        Map.Entry<Number160, GameSession> stored = latestSnapshot(peer, snapshotKey);
+        if (stored != null && session.getInstanceId().equals(stored.getValue().getInstanceId())
+                && stored.getValue().getLastSequence() > session.getLastSequence()) {
+            session = stored.getValue();
+            snapshotContentKey = stored.getKey();
+            if (listener != null) {
+                listener.stateReplaced(session);
+            }
+        }
+    }
+
+    private void fireEventApplied(SessionEvent event) {
+        if (listener != null) {
+            listener.eventApplied(event, session);
+        }
+    }
+
+    private List<SessionEvent> fetchTail() {
+        BatchResult<Map<Number160, SessionEvent>> read = DHTOperations.getAllContentMaps(peer,
+                Collections.singletonList(logKey), SessionEvent.class);
+        if (read.status(logKey) == BatchResult.Status.FAILED) {
+            logger.debug("Reading the log of {} failed", session.getName());
+            return null;
+        }
+        
+        Map<Number160, SessionEvent> stored = read.get(logKey);
+        List<SessionEvent> events = stored != null ? new ArrayList<>(stored.values()) : new ArrayList<>();
+        events.sort(Comparator.comparingLong(SessionEvent::getSequence));
+        return events;
+    }
+
+    private static Map.Entry<Number160, GameSession> latestSnapshot(PeerDHT peer, Number160 key) {
+        Map<Number160, GameSession> snapshots = DHTOperations.getContents(peer, key, GameSession.class);
+        GameSession anchor = snapshots.get(Number160.ZERO);
+        if (anchor == null) return null;
+
+        Map.Entry<Number160, GameSession> latest = null;
+        for (Map.Entry<Number160, GameSession> entry : snapshots.entrySet()) {
+            GameSession candidate = entry.getValue();
+            if (!candidate.getInstanceId().equals(anchor.getInstanceId())) continue;
+            if (latest == null || candidate.getLastSequence() > latest.getValue().getLastSequence()) {
+                latest = entry;
+            }
+        }
+        return latest;
+    }
+
+    private static Number160 snapshotKey(String name) {
+        return Number160.createHash("snapshot_" + name.toLowerCase());
+    }
+
+    private static Number160 logKey(GameSession session) {
+        return Number160.createHash("log_" + session.getName().toLowerCase() + "_" + session.getInstanceId());
+    }
+
+    private static Number160 eventKey(long sequence) {
+        return new Number160(sequence);
+    }
+}
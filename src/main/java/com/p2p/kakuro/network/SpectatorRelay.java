@@ -0,0 +1,121 @@
+package com.p2p.kakuro.network;
+
+import com.p2p.kakuro.challenge.PlayerInfo;
+import com.p2p.kakuro.challenge.SessionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class SpectatorRelay {
+    private static final Logger logger = LoggerFactory.getLogger(SpectatorRelay.class);
+
+    public static final int DEFAULT_FANOUT = 4;
+    public static final long IDLE_CATCH_UP_MS = 15000;
+
+    private static final long SUBSCRIBER_CACHE_MS = 10000;
+    private static final Comparator<PlayerInfo> TREE_ORDER =
+            Comparator.comparing(PlayerInfo::getNickname, String.CASE_INSENSITIVE_ORDER);
+
+    public static class Update implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String challengeName;
+        private final String instanceId;
+        private final SessionEvent event;
+        private final List<PlayerInfo> subtree;
+
+        Update(String challengeName, String instanceId, SessionEvent event, List<PlayerInfo> subtree) {
+            this.challengeName = challengeName;
+            this.instanceId = instanceId;
+            this.event = event;
+            this.subtree = subtree;
+        }
+
+        public String getChallengeName() { return challengeName; }
+        public String getInstanceId() { return instanceId; }
+        public SessionEvent getEvent() { return event; }
+        public List<PlayerInfo> getSubtree() { return subtree; }
+    }
+
+    private static class CachedSpectators {
+        final List<PlayerInfo> players;
+        final long fetchedAt;
+
+        CachedSpectators(List<PlayerInfo> players, long fetchedAt) {
+            this.players = players;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private final int fanout;
+    private final GossipDisseminator.Transport transport;
+    private final GossipDisseminator.SubscriberSource source;
+    private final Map<String, CachedSpectators> spectatorCache;
+    private final ExecutorService sender;
+
+    public SpectatorRelay(int fanout, GossipDisseminator.Transport transport, GossipDisseminator.SubscriberSource source) {
+        this.fanout = fanout;
+        this.transport = transport;
+        this.source = source;
+        this.spectatorCache = new ConcurrentHashMap<>();
+        this.sender = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "spectator-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void publish(String challengeName, String instanceId, SessionEvent event) {
+        sender.execute(() -> forward(challengeName, instanceId, event, spectators(challengeName)));
+    }
+
+    public void relay(Update update) {
+        List<PlayerInfo> subtree = update.getSubtree();
+        if (subtree == null || subtree.isEmpty()) return;
+
+        sender.execute(() -> forward(update.getChallengeName(), update.getInstanceId(), update.getEvent(), subtree));
+    }
+
+    public void forget(String challengeName) {
+        spectatorCache.remove(challengeName.toLowerCase());
+    }
+
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    private void forward(String challengeName, String instanceId, SessionEvent event, List<PlayerInfo> spectators) {
+        if (spectators.isEmpty()) return;
+
+        int chunk = (spectators.size() + fanout - 1) / fanout;
+        int children = 0;
+        for (int first = 0; first < spectators.size(); first += chunk) {
+            int last = Math.min(first + chunk, spectators.size());
+            List<PlayerInfo> subtree = new ArrayList<>(spectators.subList(first + 1, last));
+            transport.send(spectators.get(first), new Update(challengeName, instanceId, event, subtree));
+            children++;
+        }
+        logger.debug("Relayed #{} of {} to {} spectators", event.getSequence(), challengeName, children);
+    }
+
+    private List<PlayerInfo> spectators(String challengeName) {
+        String key = challengeName.toLowerCase();
+        long now = System.currentTimeMillis();
+        CachedSpectators cached = spectatorCache.get(key);
+        if (cached == null || now - cached.fetchedAt > SUBSCRIBER_CACHE_MS) {
+            List<PlayerInfo> players = new ArrayList<>(source.subscribers(TopicRegistry.spectatorTopic(challengeName)));
+            players.sort(TREE_ORDER);
+            cached = new CachedSpectators(players, now);
+            spectatorCache.put(key, cached);
+        }
+        return cached.players;
+    }
+}
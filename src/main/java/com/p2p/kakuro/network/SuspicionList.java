@@ -0,0 +1,41 @@
+package com.p2p.kakuro.network;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SuspicionList {
+
+    public static final long DEFAULT_SUSPICION_MS = 30000;
+
+    private final long suspicionMs;
+    private final Map<String, Long> suspectedUntil;
+
+    public SuspicionList() {
+        this(DEFAULT_SUSPICION_MS);
+    }
+
+    public SuspicionList(long suspicionMs) {
+        this.suspicionMs = suspicionMs;
+        this.suspectedUntil = new ConcurrentHashMap<>();
+    }
+
+    public void suspect(String nickname) {
+        suspectedUntil.put(nickname.toLowerCase(), System.currentTimeMillis() + suspicionMs);
+    }
+
+    public void clear(String nickname) {
+        if (nickname != null) {
+            suspectedUntil.remove(nickname.toLowerCase());
+        }
+    }
+
+    public boolean isSuspected(String nickname) {
+        Long until = suspectedUntil.get(nickname.toLowerCase());
+        if (until == null) return false;
+        if (until < System.currentTimeMillis()) {
+            suspectedUntil.remove(nickname.toLowerCase(), until);
+            return false;
+        }
+        return true;
+    }
+}
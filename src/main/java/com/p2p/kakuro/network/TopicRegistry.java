@@ -0,0 +1,54 @@
+package com.p2p.kakuro.network;
+
+import com.p2p.kakuro.challenge.PlayerInfo;
+import net.tomp2p.dht.PeerDHT;
+import net.tomp2p.peers.Number160;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TopicRegistry {
+
+    public static final String LOBBY = "lobby";
+    public static final int LEASE_SECONDS = 120;
+    public static final long RENEW_INTERVAL_MS = LEASE_SECONDS * 1000L / 2;
+
+    public static String challengeTopic(String challengeName) {
+        return "challenge:" + challengeName.toLowerCase();
+    }
+
+    public static String spectatorTopic(String challengeName) {
+        return "spectate:" + challengeName.toLowerCase();
+    }
+
+    public static boolean subscribe(PeerDHT peer, String topic, PlayerInfo player) {
+        return DHTOperations.putContent(peer, topicKey(topic), subscriberKey(player), player, LEASE_SECONDS);
+    }
+
+    public static boolean subscribeAll(PeerDHT peer, Collection<String> topics, PlayerInfo player) {
+        Map<Number160, PlayerInfo> leases = new LinkedHashMap<>();
+        for (String topic : topics) {
+            leases.put(topicKey(topic), player);
+        }
+        return DHTOperations.putAll(peer, leases, subscriberKey(player), LEASE_SECONDS).isComplete();
+    }
+
+    public static boolean unsubscribe(PeerDHT peer, String topic, PlayerInfo player) {
+        return DHTOperations.removeContent(peer, topicKey(topic), subscriberKey(player));
+    }
+
+    public static List<PlayerInfo> subscribers(PeerDHT peer, String topic) {
+        return DHTOperations.getAllContents(peer, Collections.singletonList(topicKey(topic)), PlayerInfo.class);
+    }
+
+    private static Number160 topicKey(String topic) {
+        return Number160.createHash("topic_" + topic);
+    }
+
+    private static Number160 subscriberKey(PlayerInfo player) {
+        return Number160.createHash(player.getNickname().toLowerCase());
+    }
+}
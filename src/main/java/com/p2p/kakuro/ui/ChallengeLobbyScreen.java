@@ -1,27 +1,50 @@
 package com.p2p.kakuro.ui;
 
+import com.p2p.kakuro.challenge.ChallengeSummary;
+import com.p2p.kakuro.challenge.GameSession;
+import com.p2p.kakuro.challenge.PlayerStats;
 import com.p2p.kakuro.game.PuzzleGenerator;
 import com.p2p.kakuro.network.P2PNetworkManager;
+import com.p2p.kakuro.network.PublicChallengeIndex;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class ChallengeLobbyScreen extends JPanel {
     
+    private static final String REFRESH_KEY = "lobby-refresh";
+    private static final int PAGE_SIZE = 20;
+    private static final String ALL_DIFFICULTIES = "Tutte";
+    private static final String ALL_STATUSES = "Tutti";
+    private static final int LEADERBOARD_SIZE = 100;
+    private static final Integer[] GROUP_SIZES = {2, 3, 4};
+    
     private final KakuroMainWindow mainFrame;
     private final P2PNetworkManager client;
     
-    private JList<String> challengeList;
-    private DefaultListModel<String> listModel;
+    private JList<ChallengeSummary> challengeList;
+    private DefaultListModel<ChallengeSummary> listModel;
     private JLabel playerLabel;
     private JButton refreshButton;
     private JButton joinButton;
     private JButton createPublicButton;
     private JButton createPrivateButton;
     private JButton joinPrivateButton;
+    private JButton spectateButton;
     private JButton logoutButton;
+    private JButton leaderboardButton;
+    private JButton quickMatchButton;
     private JComboBox<PuzzleGenerator.Difficulty> difficultyCombo;
+    private JComboBox<Object> difficultyFilter;
+    private JComboBox<Object> statusFilter;
+    private JButton prevPageButton;
+    private JButton nextPageButton;
+    private JLabel pageLabel;
+    private int currentPage;
 
     public ChallengeLobbyScreen(KakuroMainWindow mainFrame, P2PNetworkManager client) {
         this.mainFrame = mainFrame;
@@ -59,13 +82,32 @@ public class ChallengeLobbyScreen extends JPanel {
         
         logoutButton = createStyledButton("Esci", new Color(200, 80, 80), new Color(230, 100, 100));
         logoutButton.addActionListener(e -> {
-            client.logout();
-            mainFrame.showPanel(KakuroMainWindow.LOGIN_PANEL);
+            logoutButton.setEnabled(false);
+            mainFrame.getCommands().submit(() -> {
+                client.logout();
+                return true;
+            }, done -> {
+                logoutButton.setEnabled(true);
+                mainFrame.showPanel(KakuroMainWindow.LOGIN_PANEL);
+            });
+        });
+        
+        leaderboardButton = createStyledButton("Classifica", new Color(200, 160, 60), new Color(220, 180, 80));
+        leaderboardButton.addActionListener(e -> {
+            leaderboardButton.setEnabled(false);
+            mainFrame.getCommands().submit(() -> client.getLeaderboard(LEADERBOARD_SIZE), top -> {
+                leaderboardButton.setEnabled(true);
+                showLeaderboard(top);
+            }, error -> {
+                leaderboardButton.setEnabled(true);
+                mainFrame.showError("Classifica non disponibile");
+            });
         });
         
         JPanel rightPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 15, 0));
         rightPanel.setOpaque(false);
         rightPanel.add(playerLabel);
+        rightPanel.add(leaderboardButton);
         rightPanel.add(logoutButton);
         
         panel.add(titleLabel, BorderLayout.WEST);
@@ -94,13 +136,41 @@ public class ChallengeLobbyScreen extends JPanel {
         refreshButton = createStyledButton("Aggiorna", new Color(70, 140, 200), new Color(90, 160, 220));
         refreshButton.addActionListener(e -> refresh());
         
+        difficultyFilter = createFilterCombo(ALL_DIFFICULTIES, PuzzleGenerator.Difficulty.values());
+        statusFilter = createFilterCombo(ALL_STATUSES, GameSession.Status.WAITING, GameSession.Status.RUNNING);
+        
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
+        filterPanel.setOpaque(false);
+        filterPanel.add(difficultyFilter);
+        filterPanel.add(statusFilter);
+        filterPanel.add(refreshButton);
+        
         JPanel titlePanel = new JPanel(new BorderLayout());
         titlePanel.setOpaque(false);
         titlePanel.add(listTitle, BorderLayout.WEST);
-        titlePanel.add(refreshButton, BorderLayout.EAST);
+        titlePanel.add(filterPanel, BorderLayout.EAST);
         
         listModel = new DefaultListModel<>();
-        challengeList = new JList<>(listModel);
+        challengeList = new JList<>(listModel) {
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                if (listModel.isEmpty()) {
+                    g.setColor(new Color(150, 150, 180));
+                    g.setFont(getFont());
+                    g.drawString("  (Nessuna sfida pubblica disponibile)", 10, 28);
+                }
+            }
+        };
+        challengeList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+                setText(describe((ChallengeSummary) value));
+                return this;
+            }
+        });
         challengeList.setFont(new Font("Segoe UI", Font.PLAIN, 15));
         challengeList.setBackground(new Color(25, 25, 40));
         challengeList.setForeground(Color.WHITE);
@@ -113,12 +183,55 @@ public class ChallengeLobbyScreen extends JPanel {
         scrollPane.setBorder(BorderFactory.createLineBorder(new Color(50, 50, 70), 2));
         scrollPane.getViewport().setBackground(new Color(25, 25, 40));
         
+        prevPageButton = createStyledButton("<", new Color(60, 60, 90), new Color(80, 80, 110));
+        prevPageButton.setPreferredSize(new Dimension(50, 30));
+        prevPageButton.addActionListener(e -> showPage(currentPage - 1));
+        
+        nextPageButton = createStyledButton(">", new Color(60, 60, 90), new Color(80, 80, 110));
+        nextPageButton.setPreferredSize(new Dimension(50, 30));
+        nextPageButton.addActionListener(e -> showPage(currentPage + 1));
+        
+        pageLabel = new JLabel("Pagina 1/1");
+        pageLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        pageLabel.setForeground(new Color(180, 180, 200));
+        
+        JPanel pagePanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 0));
+        pagePanel.setOpaque(false);
+        pagePanel.add(prevPageButton);
+        pagePanel.add(pageLabel);
+        pagePanel.add(nextPageButton);
+        
         panel.add(titlePanel, BorderLayout.NORTH);
         panel.add(scrollPane, BorderLayout.CENTER);
+        panel.add(pagePanel, BorderLayout.SOUTH);
         
         return panel;
     }
 
+    private JComboBox<Object> createFilterCombo(String allLabel, Object... values) {
+        JComboBox<Object> combo = new JComboBox<>();
+        combo.addItem(allLabel);
+        for (Object value : values) {
+            combo.addItem(value);
+        }
+        combo.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+                if (value instanceof GameSession.Status) {
+                    setText(translateStatus((GameSession.Status) value));
+                }
+                return this;
+            }
+        });
+        combo.setBackground(new Color(50, 50, 70));
+        combo.setForeground(Color.WHITE);
+        combo.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        combo.addActionListener(e -> showPage(0));
+        return combo;
+    }
+
     private JPanel createActionsPanel() {
         JPanel panel = new JPanel(new GridLayout(2, 1, 15, 15));
         panel.setOpaque(false);
@@ -141,8 +254,12 @@ public class ChallengeLobbyScreen extends JPanel {
         joinPrivateButton = createStyledButton("Sfida Privata", new Color(140, 100, 180), new Color(160, 120, 200));
         joinPrivateButton.addActionListener(e -> joinPrivateChallenge());
         
+        spectateButton = createStyledButton("Guarda", new Color(90, 110, 160), new Color(110, 130, 180));
+        spectateButton.addActionListener(e -> spectateSelectedChallenge());
+        
         joinPanel.add(joinButton);
         joinPanel.add(joinPrivateButton);
+        joinPanel.add(spectateButton);
         
         JPanel createPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 10)) {
             @Override
@@ -172,10 +289,14 @@ public class ChallengeLobbyScreen extends JPanel {
         createPrivateButton = createStyledButton("+ Crea Privata", new Color(200, 140, 80), new Color(220, 160, 100));
         createPrivateButton.addActionListener(e -> createChallenge(false));
         
+        quickMatchButton = createStyledButton("Partita Rapida", new Color(70, 170, 170), new Color(90, 190, 190));
+        quickMatchButton.addActionListener(e -> toggleMatchmaking());
+        
         createPanel.add(diffLabel);
         createPanel.add(difficultyCombo);
         createPanel.add(createPublicButton);
         createPanel.add(createPrivateButton);
+        createPanel.add(quickMatchButton);
         
         panel.add(joinPanel);
         panel.add(createPanel);
@@ -219,36 +340,126 @@ public class ChallengeLobbyScreen extends JPanel {
     }
 
     public void refresh() {
-        client.refreshPublicChallenges();
+        refreshButton.setText("Aggiorno...");
+        mainFrame.getCommands().coalesce(REFRESH_KEY, client::refreshPublicChallenges, this::updateList);
+    }
+
+    private void updateList() {
+        refreshButton.setText("Aggiorna");
         
         if (client.getCurrentPlayer() != null) {
             playerLabel.setText("Giocatore: " + client.getCurrentPlayer().getNickname());
         }
         
-        listModel.clear();
-        for (String challenge : client.getPublicChallenges()) {
-            listModel.addElement("  > " + challenge);
+        showPage(currentPage);
+        updateMatchmakingState();
+    }
+
+    private void showPage(int page) {
+        Object difficulty = difficultyFilter.getSelectedItem();
+        Object status = statusFilter.getSelectedItem();
+        PublicChallengeIndex.Page result = client.getPublicChallengePage(
+                difficulty instanceof PuzzleGenerator.Difficulty ? (PuzzleGenerator.Difficulty) difficulty : null,
+                status instanceof GameSession.Status ? (GameSession.Status) status : null,
+                page, PAGE_SIZE);
+        
+        currentPage = result.getPage();
+        pageLabel.setText("Pagina " + (result.getPage() + 1) + "/" + result.getPageCount()
+                + "  (" + result.getTotal() + " sfide)"
+                + (result.getUnreachableShards() > 0 ? "  - elenco incompleto, riprova" : ""));
+        prevPageButton.setEnabled(currentPage > 0);
+        nextPageButton.setEnabled(currentPage < result.getPageCount() - 1);
+        
+        patchListModel(result.getItems());
+        challengeList.repaint();
+    }
+
+    private void patchListModel(List<ChallengeSummary> summaries) {
+        Map<String, ChallengeSummary> incoming = new HashMap<>();
+        for (ChallengeSummary summary : summaries) {
+            incoming.put(summary.getName(), summary);
+        }
+        
+        for (int i = listModel.size() - 1; i >= 0; i--) {
+            if (!incoming.containsKey(listModel.get(i).getName())) {
+                listModel.remove(i);
+            }
         }
         
-        if (listModel.isEmpty()) {
-            listModel.addElement("  (Nessuna sfida pubblica disponibile)");
+        int index = 0;
+        for (ChallengeSummary summary : summaries) {
+            if (index < listModel.size() && listModel.get(index).getName().equals(summary.getName())) {
+                if (!listModel.get(index).equals(summary)) {
+                    listModel.set(index, summary);
+                }
+            } else {
+                listModel.add(index, summary);
+            }
+            index++;
+        }
+    }
+
+    private static String describe(ChallengeSummary summary) {
+        return "  > " + summary.getName()
+                + "   [" + (summary.getDifficulty() != null ? summary.getDifficulty() : "?") + "] "
+                + translateStatus(summary.getStatus())
+                + " - " + summary.getParticipants() + " giocatori";
+    }
+
+    private static String translateStatus(GameSession.Status status) {
+        switch (status) {
+            case WAITING: return "In Attesa";
+            case RUNNING: return "In Corso";
+            case FINISHED: return "Terminata";
+            default: return status.toString();
+        }
+    }
+
+    private void showLeaderboard(List<PlayerStats> top) {
+        String[] columns = {"#", "Giocatore", "Vittorie", "Celle", "Partite"};
+        Object[][] rows = new Object[top.size()][];
+        for (int i = 0; i < top.size(); i++) {
+            PlayerStats stats = top.get(i);
+            rows[i] = new Object[]{i + 1, stats.getNickname(), stats.getWins(), stats.getCellsFound(), stats.getGamesPlayed()};
         }
+        
+        JTable table = new JTable(rows, columns);
+        table.setEnabled(false);
+        table.setRowHeight(24);
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(420, 360));
+        
+        JOptionPane.showMessageDialog(this, top.isEmpty() ? "Nessuna partita registrata" : scrollPane,
+                "Classifica", JOptionPane.PLAIN_MESSAGE);
     }
 
     private void joinSelectedChallenge() {
-        String selected = challengeList.getSelectedValue();
-        if (selected == null || selected.contains("Nessuna")) {
+        ChallengeSummary selected = challengeList.getSelectedValue();
+        if (selected == null) {
             mainFrame.showError("Seleziona una sfida");
             return;
         }
         
-        String challengeName = selected.replace("  > ", "").trim();
-        
-        if (client.joinChallenge(challengeName)) {
-            mainFrame.showPanel(KakuroMainWindow.GAME_PANEL);
-        } else {
-            mainFrame.showError("Impossibile unirsi alla sfida");
+        joinChallenge(selected.getName(), "Impossibile unirsi alla sfida");
+    }
+
+    private void spectateSelectedChallenge() {
+        ChallengeSummary selected = challengeList.getSelectedValue();
+        if (selected == null) {
+            mainFrame.showError("Seleziona una sfida");
+            return;
         }
+        
+        String name = selected.getName();
+        setActionsEnabled(false);
+        mainFrame.getCommands().submit(() -> client.spectate(name), spectating -> {
+            setActionsEnabled(true);
+            if (spectating) {
+                new SpectatorViewer(mainFrame, client, name).setVisible(true);
+            } else {
+                mainFrame.showError("Impossibile osservare la sfida");
+            }
+        });
     }
 
     private void joinPrivateChallenge() {
@@ -256,12 +467,56 @@ public class ChallengeLobbyScreen extends JPanel {
             "Inserisci nome sfida privata:", "Unisciti a Sfida Privata", JOptionPane.PLAIN_MESSAGE);
         
         if (name != null && !name.trim().isEmpty()) {
-            if (client.joinChallenge(name.trim())) {
+            joinChallenge(name.trim(), "Sfida non trovata o non accessibile");
+        }
+    }
+
+    private void joinChallenge(String challengeName, String errorMessage) {
+        setActionsEnabled(false);
+        mainFrame.getCommands().submit(() -> client.joinChallenge(challengeName), joined -> {
+            setActionsEnabled(true);
+            if (joined) {
                 mainFrame.showPanel(KakuroMainWindow.GAME_PANEL);
             } else {
-                mainFrame.showError("Sfida non trovata o non accessibile");
+                mainFrame.showError(errorMessage);
             }
+        });
+    }
+
+    private void setActionsEnabled(boolean enabled) {
+        joinButton.setEnabled(enabled);
+        joinPrivateButton.setEnabled(enabled);
+        spectateButton.setEnabled(enabled);
+        createPublicButton.setEnabled(enabled);
+        createPrivateButton.setEnabled(enabled);
+    }
+
+    private void toggleMatchmaking() {
+        if (client.isMatchmaking()) {
+            quickMatchButton.setEnabled(false);
+            mainFrame.getCommands().submit(client::cancelMatchmaking, cancelled -> updateMatchmakingState());
+            return;
         }
+        
+        Object size = JOptionPane.showInputDialog(this, "Numero di giocatori:", "Partita Rapida",
+            JOptionPane.PLAIN_MESSAGE, null, GROUP_SIZES, GROUP_SIZES[0]);
+        if (size == null) return;
+        
+        PuzzleGenerator.Difficulty diff = (PuzzleGenerator.Difficulty) difficultyCombo.getSelectedItem();
+        quickMatchButton.setEnabled(false);
+        mainFrame.getCommands().submit(() -> client.enqueueMatch(diff, (Integer) size), queued -> {
+            updateMatchmakingState();
+            if (!queued) {
+                mainFrame.showError("Impossibile avviare la ricerca");
+            }
+        });
+    }
+
+    private void updateMatchmakingState() {
+        boolean searching = client.isMatchmaking();
+        quickMatchButton.setText(searching ? "Annulla Ricerca" : "Partita Rapida");
+        quickMatchButton.setEnabled(true);
+        setActionsEnabled(!searching);
     }
 
     private void createChallenge(boolean isPublic) {
@@ -271,11 +526,17 @@ public class ChallengeLobbyScreen extends JPanel {
         if (name != null && !name.trim().isEmpty()) {
             PuzzleGenerator.Difficulty diff = (PuzzleGenerator.Difficulty) difficultyCombo.getSelectedItem();
             
-            if (client.createChallenge(name.trim(), isPublic, diff)) {
-                mainFrame.showPanel(KakuroMainWindow.GAME_PANEL);
-            } else {
-                mainFrame.showError("Impossibile creare sfida. Nome già in uso.");
-            }
+            String challengeName = name.trim();
+            
+            setActionsEnabled(false);
+            mainFrame.getCommands().submit(() -> client.createChallenge(challengeName, isPublic, diff), created -> {
+                setActionsEnabled(true);
+                if (created) {
+                    mainFrame.showPanel(KakuroMainWindow.GAME_PANEL);
+                } else {
+                    mainFrame.showError("Impossibile creare sfida. Nome già in uso.");
+                }
+            });
         }
     }
 }
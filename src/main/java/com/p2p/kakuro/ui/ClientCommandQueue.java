@@ -0,0 +1,118 @@
+package com.p2p.kakuro.ui;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+public class ClientCommandQueue {
+    private static final Logger logger = LoggerFactory.getLogger(ClientCommandQueue.class);
+
+    public interface PendingListener {
+        void pendingChanged(boolean pending);
+    }
+
+    private final ExecutorService worker;
+    private final Set<String> queuedKeys;
+    private final AtomicInteger pending;
+    private final List<PendingListener> listeners;
+
+    public ClientCommandQueue() {
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "client-commands");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.queuedKeys = ConcurrentHashMap.newKeySet();
+        this.pending = new AtomicInteger();
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    public void addPendingListener(PendingListener listener) {
+        listeners.add(listener);
+    }
+
+    public boolean isPending() {
+        return pending.get() > 0;
+    }
+
+    public <T> void submit(Callable<T> command, Consumer<T> onSuccess) {
+        submit(command, onSuccess, null);
+    }
+
+    public <T> void submit(Callable<T> command, Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        enqueue(null, command, onSuccess, onFailure);
+    }
+
+    public boolean coalesce(String key, Runnable command, Runnable onDone) {
+        if (!queuedKeys.add(key)) {
+            return false;
+        }
+        enqueue(key, () -> {
+            command.run();
+            return null;
+        }, result -> {
+            if (onDone != null) onDone.run();
+        }, null);
+        return true;
+    }
+
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private <T> void enqueue(String key, Callable<T> command, Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        if (pending.getAndIncrement() == 0) {
+            firePendingChanged(true);
+        }
+
+        worker.execute(() -> {
+            if (key != null) {
+                queuedKeys.remove(key);
+            }
+
+            T result = null;
+            Exception error = null;
+            try {
+                result = command.call();
+            } catch (Exception e) {
+                logger.warn("Client command failed: {}", e.getMessage());
+                error = e;
+            }
+
+            T finalResult = result;
+            Exception finalError = error;
+            SwingUtilities.invokeLater(() -> {
+                try {
+                    if (finalError == null) {
+                        if (onSuccess != null) onSuccess.accept(finalResult);
+                    } else if (onFailure != null) {
+                        onFailure.accept(finalError);
+                    }
+                } finally {
+                    if (pending.decrementAndGet() == 0) {
+                        firePendingChanged(false);
+                    }
+                }
+            });
+        });
+    }
+
+    private void firePendingChanged(boolean isPending) {
+        SwingUtilities.invokeLater(() -> {
+            if (isPending != (pending.get() > 0)) return;
+            for (PendingListener listener : listeners) {
+                listener.pendingChanged(isPending);
+            }
+        });
+    }
+}
@@ -1,21 +1,33 @@
 package com.p2p.kakuro.ui;
 
 import com.p2p.kakuro.challenge.GameSession;
+import com.p2p.kakuro.challenge.MatchReplay;
 import com.p2p.kakuro.game.GameBoard;
-import com.p2p.kakuro.game.BoardCell;
+import com.p2p.kakuro.game.HintEngine;
 import com.p2p.kakuro.network.P2PNetworkManager;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
+import java.nio.file.Path;
 import java.util.Map;
 
 public class GameBoardScreen extends JPanel {
     
+    static final String REFRESH_KEY = "challenge-refresh";
+    
     private final KakuroMainWindow mainFrame;
     private final P2PNetworkManager client;
     
+    private static final String WAITING_CARD = "waiting";
+    private static final String FINISHED_CARD = "finished";
+    private static final String BOARD_CARD = "board";
+    
     private JPanel boardPanel;
+    private CardLayout boardCards;
+    private KakuroBoardView boardView;
+    private JLabel winnerLabel;
+    private JButton replayButton;
     private JLabel challengeNameLabel;
     private JLabel statusLabel;
     private JLabel scoreLabel;
@@ -23,6 +35,7 @@ public class GameBoardScreen extends JPanel {
     private JButton startButton;
     private JButton leaveButton;
     private JButton refreshButton;
+    private JButton hintButton;
     private javax.swing.Timer autoRefreshTimer;
 
     public GameBoardScreen(KakuroMainWindow mainFrame, P2PNetworkManager client) {
@@ -36,8 +49,7 @@ public class GameBoardScreen extends JPanel {
     private void startAutoRefresh() {
         autoRefreshTimer = new javax.swing.Timer(1000, e -> {
             if (client.isInChallenge()) {
-                client.refreshCurrentChallenge();
-                refresh();
+                requestRefresh();
             }
         });
         autoRefreshTimer.start();
@@ -60,14 +72,68 @@ public class GameBoardScreen extends JPanel {
                 g2d.fillRoundRect(0, 0, getWidth(), getHeight(), 20, 20);
             }
         };
+        boardCards = new CardLayout();
+        boardPanel.setLayout(boardCards);
         boardPanel.setOpaque(false);
         boardPanel.setBorder(new EmptyBorder(20, 20, 20, 20));
+        boardPanel.add(createWaitingCard(), WAITING_CARD);
+        boardPanel.add(createFinishedCard(), FINISHED_CARD);
+        
+        boardView = new KakuroBoardView();
+        boardView.setCellClickListener((row, col) -> {
+            String input = JOptionPane.showInputDialog(GameBoardScreen.this,
+                "Inserisci numero (1-9):", "Numero", JOptionPane.PLAIN_MESSAGE);
+            if (input != null && input.matches("[1-9]")) {
+                placeNumberAt(row, col, Integer.parseInt(input));
+            }
+        });
+        boardPanel.add(boardView, BOARD_CARD);
         add(boardPanel, BorderLayout.CENTER);
         
         JPanel sidePanel = createSidePanel();
         add(sidePanel, BorderLayout.EAST);
     }
 
+    private JPanel createWaitingCard() {
+        JPanel panel = new JPanel(new GridBagLayout());
+        panel.setOpaque(false);
+        JLabel waitLabel = new JLabel("In attesa dell'avvio...");
+        waitLabel.setFont(new Font("Segoe UI", Font.ITALIC, 20));
+        waitLabel.setForeground(new Color(150, 150, 180));
+        panel.add(waitLabel);
+        return panel;
+    }
+
+    private JPanel createFinishedCard() {
+        JPanel panel = new JPanel(new GridBagLayout());
+        panel.setOpaque(false);
+        JPanel finishPanel = new JPanel();
+        finishPanel.setLayout(new BoxLayout(finishPanel, BoxLayout.Y_AXIS));
+        finishPanel.setOpaque(false);
+        
+        JLabel winLabel = new JLabel("PARTITA TERMINATA!");
+        winLabel.setFont(new Font("Segoe UI", Font.BOLD, 28));
+        winLabel.setForeground(new Color(255, 215, 0));
+        winLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        
+        winnerLabel = new JLabel("Vincitore: ---");
+        winnerLabel.setFont(new Font("Segoe UI", Font.BOLD, 22));
+        winnerLabel.setForeground(new Color(100, 220, 120));
+        winnerLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        
+        replayButton = createStyledButton("Rivedi partita", new Color(140, 100, 180), new Color(160, 120, 200));
+        replayButton.setAlignmentX(Component.CENTER_ALIGNMENT);
+        replayButton.addActionListener(e -> openReplay());
+        
+        finishPanel.add(winLabel);
+        finishPanel.add(Box.createVerticalStrut(15));
+        finishPanel.add(winnerLabel);
+        finishPanel.add(Box.createVerticalStrut(20));
+        finishPanel.add(replayButton);
+        panel.add(finishPanel);
+        return panel;
+    }
+
     private JPanel createHeaderPanel() {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setOpaque(false);
@@ -91,10 +157,7 @@ public class GameBoardScreen extends JPanel {
         leaveButton.addActionListener(e -> leaveChallenge());
         
         refreshButton = createStyledButton("Aggiorna", new Color(70, 140, 200), new Color(90, 160, 220));
-        refreshButton.addActionListener(e -> {
-            client.refreshCurrentChallenge();
-            refresh();
-        });
+        refreshButton.addActionListener(e -> requestRefresh());
         
         JPanel rightPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
         rightPanel.setOpaque(false);
@@ -149,6 +212,11 @@ public class GameBoardScreen extends JPanel {
         startButton.setMaximumSize(new Dimension(180, 45));
         startButton.addActionListener(e -> startChallenge());
         
+        hintButton = createStyledButton("Suggerimento", new Color(140, 100, 180), new Color(160, 120, 200));
+        hintButton.setAlignmentX(Component.CENTER_ALIGNMENT);
+        hintButton.setMaximumSize(new Dimension(180, 38));
+        hintButton.addActionListener(e -> showHint());
+        
         JLabel rulesTitle = new JLabel("Regole");
         rulesTitle.setFont(new Font("Segoe UI", Font.BOLD, 14));
         rulesTitle.setForeground(new Color(150, 150, 180));
@@ -169,6 +237,8 @@ public class GameBoardScreen extends JPanel {
         panel.add(scrollPane);
         panel.add(Box.createVerticalStrut(25));
         panel.add(startButton);
+        panel.add(Box.createVerticalStrut(10));
+        panel.add(hintButton);
         panel.add(Box.createVerticalStrut(30));
         panel.add(rulesTitle);
         panel.add(Box.createVerticalStrut(8));
@@ -213,6 +283,10 @@ public class GameBoardScreen extends JPanel {
         return button;
     }
 
+    private void requestRefresh() {
+        mainFrame.getCommands().coalesce(REFRESH_KEY, client::refreshCurrentChallenge, this::refresh);
+    }
+
     public void refresh() {
         GameSession challenge = client.getCurrentChallenge();
         if (challenge == null) {
@@ -236,6 +310,7 @@ public class GameBoardScreen extends JPanel {
         boolean isOwner = challenge.isOwner(client.getCurrentPlayer().getNickname());
         boolean isWaiting = challenge.getStatus() == GameSession.Status.WAITING;
         startButton.setVisible(isOwner && isWaiting);
+        hintButton.setVisible(challenge.getStatus() == GameSession.Status.RUNNING);
         startButton.setEnabled(challenge.getParticipantCount() >= 2);
         
         if (isOwner && isWaiting && challenge.getParticipantCount() < 2) {
@@ -248,160 +323,18 @@ public class GameBoardScreen extends JPanel {
     }
 
     private void updateBoard(GameSession challenge) {
-        boardPanel.removeAll();
-        
         if (challenge.getStatus() == GameSession.Status.WAITING) {
-            boardPanel.setLayout(new GridBagLayout());
-            JLabel waitLabel = new JLabel("In attesa dell'avvio...");
-            waitLabel.setFont(new Font("Segoe UI", Font.ITALIC, 20));
-            waitLabel.setForeground(new Color(150, 150, 180));
-            boardPanel.add(waitLabel);
+            boardCards.show(boardPanel, WAITING_CARD);
         } else if (challenge.getStatus() == GameSession.Status.FINISHED) {
-            boardPanel.setLayout(new GridBagLayout());
-            JPanel finishPanel = new JPanel();
-            finishPanel.setLayout(new BoxLayout(finishPanel, BoxLayout.Y_AXIS));
-            finishPanel.setOpaque(false);
-            
-            JLabel winLabel = new JLabel("PARTITA TERMINATA!");
-            winLabel.setFont(new Font("Segoe UI", Font.BOLD, 28));
-            winLabel.setForeground(new Color(255, 215, 0));
-            winLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-            
-            JLabel winnerLabel = new JLabel("Vincitore: " + challenge.getWinner());
-            winnerLabel.setFont(new Font("Segoe UI", Font.BOLD, 22));
-            winnerLabel.setForeground(new Color(100, 220, 120));
-            winnerLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
-            
-            finishPanel.add(winLabel);
-            finishPanel.add(Box.createVerticalStrut(15));
-            finishPanel.add(winnerLabel);
-            boardPanel.add(finishPanel);
+            winnerLabel.setText("Vincitore: " + challenge.getWinner());
+            replayButton.setVisible(client.getLastReplay() != null);
+            boardCards.show(boardPanel, FINISHED_CARD);
         } else {
             GameBoard board = client.getPlayerBoard();
             if (board != null) {
-                int rows = board.getRows();
-                int cols = board.getCols();
-                
-                boardPanel.setLayout(new GridLayout(rows, cols, 2, 2));
-                
-                for (int i = 0; i < rows; i++) {
-                    for (int j = 0; j < cols; j++) {
-                        BoardCell cell = board.getCell(i, j);
-                        JComponent cellComponent = createCellComponent(cell, i, j);
-                        boardPanel.add(cellComponent);
-                    }
-                }
+                boardView.setBoard(board, challenge.getVersion());
             }
-        }
-        
-        boardPanel.revalidate();
-        boardPanel.repaint();
-    }
-
-    private JComponent createCellComponent(BoardCell cell, int row, int col) {
-        if (cell.isBlocked()) {
-            JPanel blocked = new JPanel() {
-                @Override
-                protected void paintComponent(Graphics g) {
-                    super.paintComponent(g);
-                    g.setColor(Color.BLACK);
-                    g.fillRect(0, 0, getWidth(), getHeight());
-                }
-            };
-            blocked.setPreferredSize(new Dimension(50, 50));
-            return blocked;
-        } else if (cell.isClue()) {
-            return new CluePanel(cell.getVerticalClue(), cell.getHorizontalClue());
-        } else if (cell.isPlayable()) {
-            JButton btn = new JButton();
-            btn.setFont(new Font("Arial", Font.BOLD, 22));
-            btn.setPreferredSize(new Dimension(50, 50));
-            btn.setMargin(new Insets(0, 0, 0, 0));
-            btn.setFocusPainted(false);
-            btn.setBorder(BorderFactory.createLineBorder(Color.GRAY, 1));
-            
-            if (cell.getValue() > 0) {
-                btn.setText(String.valueOf(cell.getValue()));
-                btn.setBackground(Color.WHITE);
-                btn.setForeground(Color.BLACK);
-                btn.setEnabled(false);
-            } else {
-                btn.setText("");
-                btn.setBackground(Color.WHITE);
-                btn.setForeground(Color.BLACK);
-                
-                final int r = row;
-                final int c = col;
-                btn.addActionListener(e -> {
-                    String input = JOptionPane.showInputDialog(GameBoardScreen.this,
-                        "Inserisci numero (1-9):", "Numero", JOptionPane.PLAIN_MESSAGE);
-                    if (input != null && input.matches("[1-9]")) {
-                        placeNumberAt(r, c, Integer.parseInt(input));
-                    }
-                });
-            }
-            return btn;
-        }
-        
-        JPanel empty = new JPanel();
-        empty.setBackground(Color.BLACK);
-        empty.setPreferredSize(new Dimension(50, 50));
-        return empty;
-    }
-    
-    private class CluePanel extends JPanel {
-        private final int verticalClue;
-        private final int horizontalClue;
-        
-        public CluePanel(int verticalClue, int horizontalClue) {
-            this.verticalClue = verticalClue;
-            this.horizontalClue = horizontalClue;
-            setPreferredSize(new Dimension(50, 50));
-        }
-        
-        @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            Graphics2D g2d = (Graphics2D) g;
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-            
-            int w = getWidth();
-            int h = getHeight();
-            
-            g2d.setColor(Color.BLACK);
-            g2d.fillRect(0, 0, w, h);
-            
-            g2d.setColor(new Color(180, 180, 180));
-            g2d.setStroke(new BasicStroke(1.5f));
-            g2d.drawLine(0, 0, w, h);
-            
-            g2d.setColor(Color.WHITE);
-            Font numFont = new Font("Arial", Font.BOLD, 12);
-            g2d.setFont(numFont);
-            FontMetrics fm = g2d.getFontMetrics();
-            
-            if (horizontalClue > 0) {
-                String hText = String.valueOf(horizontalClue);
-                int textWidth = fm.stringWidth(hText);
-                int textHeight = fm.getAscent();
-                int hx = w / 2 + (w / 4) - (textWidth / 2);
-                int hy = h / 4 + (textHeight / 2);
-                g2d.drawString(hText, hx, hy);
-            }
-            
-            if (verticalClue > 0) {
-                String vText = String.valueOf(verticalClue);
-                int textWidth = fm.stringWidth(vText);
-                int textHeight = fm.getAscent();
-                int vx = w / 4 - (textWidth / 2);
-                int vy = h / 2 + h / 4 + (textHeight / 2);
-                g2d.drawString(vText, vx, vy);
-            }
-            
-            g2d.setColor(new Color(100, 100, 100));
-            g2d.setStroke(new BasicStroke(1));
-            g2d.drawRect(0, 0, w - 1, h - 1);
+            boardCards.show(boardPanel, BOARD_CARD);
         }
     }
 
@@ -412,32 +345,60 @@ public class GameBoardScreen extends JPanel {
             return;
         }
         
-        int result = client.placeNumber(row, col, number);
-        
-        String message;
-        if (result > 0) {
-            message = "Corretto! +1 punto";
-        } else {
-            message = "Gia trovato o sbagliato";
-        }
-        
-        client.refreshCurrentChallenge();
+        int expected = client.applyLocalMove(row, col, number);
         refresh();
+        statusLabel.setText(moveMessage(expected));
+        
+        mainFrame.getCommands().submit(() -> client.placeNumber(row, col, number), result -> {
+            refresh();
+            
+            GameSession updated = client.getCurrentChallenge();
+            if (updated == null) {
+                return;
+            }
+            if (result < 0) {
+                statusLabel.setText("Mossa non confermata, annullata");
+            } else if (updated.getStatus() == GameSession.Status.FINISHED) {
+                mainFrame.showInfo("PARTITA TERMINATA!\n\nVincitore: " + updated.getWinner() + "\nIl tuo punteggio: " + client.getPlayerScore());
+            } else if (result != expected) {
+                statusLabel.setText(result > 0 ? moveMessage(result) : "Cella trovata prima da un altro giocatore");
+            }
+        });
+    }
+    
+    private void openReplay() {
+        Path file = client.getLastReplay();
+        if (file == null) return;
         
-        if (client.getCurrentChallenge().getStatus() == GameSession.Status.FINISHED) {
-            String winner = client.getCurrentChallenge().getWinner();
-            mainFrame.showInfo("PARTITA TERMINATA!\n\nVincitore: " + winner + "\nIl tuo punteggio: " + client.getPlayerScore());
+        mainFrame.getCommands().submit(() -> MatchReplay.read(file),
+                replay -> new ReplayViewer(SwingUtilities.getWindowAncestor(this), replay).setVisible(true),
+                error -> mainFrame.showError("Impossibile aprire il replay"));
+    }
+    
+    private String moveMessage(int scoreChange) {
+        return scoreChange > 0 ? "Corretto! +1 punto" : "Gia trovato o sbagliato";
+    }
+
+    private void showHint() {
+        HintEngine.Hint hint = client.getHint();
+        if (hint == null) {
+            statusLabel.setText("Nessun suggerimento disponibile");
         } else {
-            statusLabel.setText(message);
+            statusLabel.setText("Suggerimento: riga " + (hint.getRow() + 1) + ", colonna " + (hint.getCol() + 1)
+                    + " = " + hint.getValue());
         }
     }
 
     private void startChallenge() {
-        if (client.startChallenge()) {
-            refresh();
-        } else {
-            mainFrame.showError("Impossibile avviare. Servono almeno 2 giocatori.");
-        }
+        startButton.setEnabled(false);
+        mainFrame.getCommands().submit(client::startChallenge, started -> {
+            if (started) {
+                refresh();
+            } else {
+                startButton.setEnabled(true);
+                mainFrame.showError("Impossibile avviare. Servono almeno 2 giocatori.");
+            }
+        });
     }
 
     private void leaveChallenge() {
@@ -446,8 +407,11 @@ public class GameBoardScreen extends JPanel {
             "Abbandona Sfida", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
         
         if (confirm == JOptionPane.YES_OPTION) {
-            client.leaveChallenge();
-            mainFrame.showPanel(KakuroMainWindow.LOBBY_PANEL);
+            leaveButton.setEnabled(false);
+            mainFrame.getCommands().submit(client::leaveChallenge, left -> {
+                leaveButton.setEnabled(true);
+                mainFrame.showPanel(KakuroMainWindow.LOBBY_PANEL);
+            });
         }
     }
     
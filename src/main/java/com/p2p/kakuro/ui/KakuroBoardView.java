@@ -0,0 +1,248 @@
+package com.p2p.kakuro.ui;
+
+import com.p2p.kakuro.game.GameBoard;
+import com.p2p.kakuro.game.PuzzleLayout;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+public class KakuroBoardView extends JComponent {
+
+    public interface CellClickListener {
+        void cellClicked(int row, int col);
+    }
+
+    private static final int CELL_SIZE = 50;
+    private static final int GAP = 2;
+
+    private static final Font VALUE_FONT = new Font("Arial", Font.BOLD, 22);
+    private static final Font CLUE_FONT = new Font("Arial", Font.BOLD, 12);
+    private static final Stroke DIAGONAL_STROKE = new BasicStroke(1.5f);
+    private static final Stroke BORDER_STROKE = new BasicStroke(1);
+    private static final Color DIAGONAL_COLOR = new Color(180, 180, 180);
+    private static final Color CLUE_BORDER_COLOR = new Color(100, 100, 100);
+    private static final Color HOVER_COLOR = new Color(220, 235, 255);
+
+    private PuzzleLayout layout;
+    private byte[] values = new byte[0];
+    private long version = -1;
+    private GameBoard lastBoard;
+    private int hoverRow = -1;
+    private int hoverCol = -1;
+    private CellClickListener clickListener;
+
+    public KakuroBoardView() {
+        setOpaque(false);
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int[] cell = cellAt(e.getX(), e.getY());
+                if (cell != null && clickListener != null && isEditable(cell[0], cell[1])) {
+                    clickListener.cellClicked(cell[0], cell[1]);
+                }
+            }
+
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                int[] cell = cellAt(e.getX(), e.getY());
+                int row = cell != null && clickListener != null && isEditable(cell[0], cell[1]) ? cell[0] : -1;
+                int col = row >= 0 ? cell[1] : -1;
+                if (row != hoverRow || col != hoverCol) {
+                    repaintCell(hoverRow, hoverCol);
+                    hoverRow = row;
+                    hoverCol = col;
+                    repaintCell(hoverRow, hoverCol);
+                    setCursor(row >= 0 ? Cursor.getPredefinedCursor(Cursor.HAND_CURSOR) : Cursor.getDefaultCursor());
+                }
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                repaintCell(hoverRow, hoverCol);
+                hoverRow = -1;
+                hoverCol = -1;
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+    }
+
+    public void setCellClickListener(CellClickListener clickListener) {
+        this.clickListener = clickListener;
+    }
+
+    public void setBoard(GameBoard board, long sessionVersion) {
+        if (board == null) return;
+
+        PuzzleLayout newLayout = board.getLayout();
+        if (layout == null || !layout.equals(newLayout)) {
+            layout = newLayout;
+            values = new byte[layout.getRows() * layout.getCols()];
+            copyValues(board);
+            version = sessionVersion;
+            lastBoard = board;
+            hoverRow = -1;
+            hoverCol = -1;
+            revalidate();
+            repaint();
+            return;
+        }
+
+        if (board == lastBoard && sessionVersion == version) return;
+        version = sessionVersion;
+        lastBoard = board;
+
+        int cols = layout.getCols();
+        for (int i = 0; i < layout.getRows(); i++) {
+            for (int j = 0; j < cols; j++) {
+                byte value = (byte) board.getValue(i, j);
+                if (values[i * cols + j] != value) {
+                    values[i * cols + j] = value;
+                    repaintCell(i, j);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (layout == null) return new Dimension(CELL_SIZE, CELL_SIZE);
+        return new Dimension(layout.getCols() * (CELL_SIZE + GAP) - GAP, layout.getRows() * (CELL_SIZE + GAP) - GAP);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (layout == null) return;
+
+        Graphics2D g2d = (Graphics2D) g.create();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        Rectangle clip = g2d.getClipBounds();
+        int size = cellSize();
+        for (int i = 0; i < layout.getRows(); i++) {
+            for (int j = 0; j < layout.getCols(); j++) {
+                int x = originX(size) + j * (size + GAP);
+                int y = originY(size) + i * (size + GAP);
+                if (clip == null || clip.intersects(x, y, size, size)) {
+                    paintCell(g2d, i, j, x, y, size);
+                }
+            }
+        }
+        g2d.dispose();
+    }
+
+    private void paintCell(Graphics2D g2d, int row, int col, int x, int y, int size) {
+        switch (layout.getType(row, col)) {
+            case PLAYABLE:
+                paintPlayable(g2d, row, col, x, y, size);
+                break;
+            case CLUE:
+                paintClue(g2d, layout.getVerticalClue(row, col), layout.getHorizontalClue(row, col), x, y, size);
+                break;
+            default:
+                g2d.setColor(Color.BLACK);
+                g2d.fillRect(x, y, size, size);
+        }
+    }
+
+    private void paintPlayable(Graphics2D g2d, int row, int col, int x, int y, int size) {
+        boolean hover = row == hoverRow && col == hoverCol;
+        g2d.setColor(hover ? HOVER_COLOR : Color.WHITE);
+        g2d.fillRect(x, y, size, size);
+        g2d.setColor(Color.GRAY);
+        g2d.setStroke(BORDER_STROKE);
+        g2d.drawRect(x, y, size - 1, size - 1);
+
+        int value = values[row * layout.getCols() + col];
+        if (value > 0) {
+            String text = String.valueOf(value);
+            g2d.setColor(Color.BLACK);
+            g2d.setFont(VALUE_FONT);
+            FontMetrics fm = g2d.getFontMetrics();
+            g2d.drawString(text, x + (size - fm.stringWidth(text)) / 2, y + (size + fm.getAscent() - fm.getDescent()) / 2);
+        }
+    }
+
+    private void paintClue(Graphics2D g2d, int verticalClue, int horizontalClue, int x, int y, int size) {
+        g2d.setColor(Color.BLACK);
+        g2d.fillRect(x, y, size, size);
+
+        g2d.setColor(DIAGONAL_COLOR);
+        g2d.setStroke(DIAGONAL_STROKE);
+        g2d.drawLine(x, y, x + size, y + size);
+
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(CLUE_FONT);
+        FontMetrics fm = g2d.getFontMetrics();
+
+        if (horizontalClue > 0) {
+            String hText = String.valueOf(horizontalClue);
+            g2d.drawString(hText, x + size / 2 + size / 4 - fm.stringWidth(hText) / 2, y + size / 4 + fm.getAscent() / 2);
+        }
+
+        if (verticalClue > 0) {
+            String vText = String.valueOf(verticalClue);
+            g2d.drawString(vText, x + size / 4 - fm.stringWidth(vText) / 2, y + size / 2 + size / 4 + fm.getAscent() / 2);
+        }
+
+        g2d.setColor(CLUE_BORDER_COLOR);
+        g2d.setStroke(BORDER_STROKE);
+        g2d.drawRect(x, y, size - 1, size - 1);
+    }
+
+    private boolean isEditable(int row, int col) {
+        return layout != null && layout.isPlayable(row, col) && values[row * layout.getCols() + col] == 0;
+    }
+
+    private int[] cellAt(int px, int py) {
+        if (layout == null) return null;
+
+        int size = cellSize();
+        int x = px - originX(size);
+        int y = py - originY(size);
+        if (x < 0 || y < 0) return null;
+
+        int col = x / (size + GAP);
+        int row = y / (size + GAP);
+        if (row >= layout.getRows() || col >= layout.getCols()) return null;
+        if (x % (size + GAP) >= size || y % (size + GAP) >= size) return null;
+        return new int[]{row, col};
+    }
+
+    private void repaintCell(int row, int col) {
+        if (layout == null || row < 0 || col < 0) return;
+        int size = cellSize();
+        repaint(originX(size) + col * (size + GAP), originY(size) + row * (size + GAP), size, size);
+    }
+
+    private void copyValues(GameBoard board) {
+        int cols = layout.getCols();
+        for (int i = 0; i < layout.getRows(); i++) {
+            for (int j = 0; j < cols; j++) {
+                values[i * cols + j] = (byte) board.getValue(i, j);
+            }
+        }
+    }
+
+    private int cellSize() {
+        int rows = layout.getRows();
+        int cols = layout.getCols();
+        int byWidth = (getWidth() - GAP * (cols - 1)) / cols;
+        int byHeight = (getHeight() - GAP * (rows - 1)) / rows;
+        return Math.max(8, Math.min(byWidth, byHeight));
+    }
+
+    private int originX(int size) {
+        int cols = layout.getCols();
+        return (getWidth() - (cols * (size + GAP) - GAP)) / 2;
+    }
+
+    private int originY(int size) {
+        int rows = layout.getRows();
+        return (getHeight() - (rows * (size + GAP) - GAP)) / 2;
+    }
+}
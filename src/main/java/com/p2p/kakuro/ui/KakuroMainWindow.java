@@ -12,10 +12,12 @@ public class KakuroMainWindow extends JFrame implements P2PMessageHandler {
     private final P2PNetworkManager client;
     private final CardLayout cardLayout;
     private final JPanel mainPanel;
+    private final ClientCommandQueue commands;
     
     private PlayerLoginScreen loginPanel;
     private ChallengeLobbyScreen lobbyPanel;
     private GameBoardScreen gamePanel;
+    private boolean closing;
     
     public static final String LOGIN_PANEL = "login";
     public static final String LOBBY_PANEL = "lobby";
@@ -25,7 +27,11 @@ public class KakuroMainWindow extends JFrame implements P2PMessageHandler {
         this.client = client;
         this.cardLayout = new CardLayout();
         this.mainPanel = new JPanel(cardLayout);
+        this.commands = new ClientCommandQueue();
         
+        commands.addPendingListener(pending -> setCursor(pending
+                ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR)
+                : Cursor.getDefaultCursor()));
         client.addListener(this);
         
         initComponents();
@@ -46,7 +52,7 @@ public class KakuroMainWindow extends JFrame implements P2PMessageHandler {
 
     private void setupFrame() {
         setTitle("P2P Kakuro");
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
         setSize(900, 700);
         setMinimumSize(new Dimension(800, 600));
         setLocationRelativeTo(null);
@@ -54,11 +60,33 @@ public class KakuroMainWindow extends JFrame implements P2PMessageHandler {
         addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
             public void windowClosing(java.awt.event.WindowEvent e) {
-                client.shutdown();
+                close();
             }
         });
     }
 
+    private void close() {
+        if (closing) return;
+        closing = true;
+        setTitle("P2P Kakuro - chiusura in corso...");
+        mainPanel.setEnabled(false);
+
+        commands.submit(() -> {
+            client.shutdown();
+            return null;
+        }, done -> exit(), error -> exit());
+    }
+
+    private void exit() {
+        commands.shutdown();
+        dispose();
+        System.exit(0);
+    }
+
+    public ClientCommandQueue getCommands() {
+        return commands;
+    }
+
     public void showPanel(String panelName) {
         cardLayout.show(mainPanel, panelName);
         
@@ -91,6 +119,12 @@ public class KakuroMainWindow extends JFrame implements P2PMessageHandler {
                         lobbyPanel.refresh();
                     }
                     break;
+                case MATCH_FOUND:
+                    if (client.getCurrentChallenge() != null
+                            && message.getChallengeName().equals(client.getCurrentChallenge().getName())) {
+                        showPanel(GAME_PANEL);
+                    }
+                    break;
                 case CHALLENGE_UPDATED:
                 case PLAYER_JOINED:
                 case PLAYER_LEFT:
@@ -98,12 +132,14 @@ public class KakuroMainWindow extends JFrame implements P2PMessageHandler {
                 case NUMBER_PLACED:
                 case CHALLENGE_FINISHED:
                     if (gamePanel != null && client.isInChallenge()) {
-                        client.refreshCurrentChallenge();
                         gamePanel.refresh();
                         
                         if (message.getType() == GameMessage.Type.CHALLENGE_FINISHED) {
-                            String winner = client.getCurrentChallenge().getWinner();
-                            showInfo("Partita Terminata! Vincitore: " + winner);
+                            commands.submit(client::getCurrentChallenge, challenge -> {
+                                if (challenge != null) {
+                                    showInfo("Partita Terminata! Vincitore: " + challenge.getWinner());
+                                }
+                            });
                         }
                     }
                     break;
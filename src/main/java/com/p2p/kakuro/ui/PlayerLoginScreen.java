@@ -157,30 +157,19 @@ public class PlayerLoginScreen extends JPanel {
         statusLabel.setText("Connessione...");
         statusLabel.setForeground(new Color(255, 200, 100));
         
-        SwingWorker<Boolean, Void> worker = new SwingWorker<>() {
-            @Override
-            protected Boolean doInBackground() throws Exception {
-                return client.login(nickname);
-            }
-            
-            @Override
-            protected void done() {
-                try {
-                    if (get()) {
-                        statusLabel.setText(" ");
-                        mainFrame.showPanel(KakuroMainWindow.LOBBY_PANEL);
-                    } else {
-                        statusLabel.setText("Nickname già in uso");
-                        statusLabel.setForeground(new Color(255, 120, 120));
-                    }
-                } catch (Exception e) {
-                    statusLabel.setText("Connessione fallita: " + e.getMessage());
-                    statusLabel.setForeground(new Color(255, 120, 120));
-                }
-                loginButton.setEnabled(true);
+        mainFrame.getCommands().submit(() -> client.login(nickname), loggedIn -> {
+            if (loggedIn) {
+                statusLabel.setText(" ");
+                mainFrame.showPanel(KakuroMainWindow.LOBBY_PANEL);
+            } else {
+                statusLabel.setText("Nickname già in uso");
+                statusLabel.setForeground(new Color(255, 120, 120));
             }
-        };
-        
-        worker.execute();
+            loginButton.setEnabled(true);
+        }, e -> {
+            statusLabel.setText("Connessione fallita: " + e.getMessage());
+            statusLabel.setForeground(new Color(255, 120, 120));
+            loginButton.setEnabled(true);
+        });
     }
 }
@@ -0,0 +1,147 @@
+package com.p2p.kakuro.ui;
+
+import com.p2p.kakuro.challenge.GameSession;
+import com.p2p.kakuro.challenge.MatchReplay;
+import com.p2p.kakuro.challenge.SessionEvent;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+import java.util.Map;
+
+public class ReplayViewer extends JDialog {
+
+    private static final double[] SPEEDS = {0.5, 1, 2, 4, 8, 16};
+    private static final long MIN_STEP_MS = 50;
+    private static final long MAX_STEP_MS = 1500;
+
+    private final MatchReplay replay;
+    private final KakuroBoardView boardView;
+    private final JSlider slider;
+    private final JButton playButton;
+    private final JComboBox<String> speedCombo;
+    private final JLabel moveLabel;
+    private final JTextArea scoresArea;
+    private final Timer timer;
+    private int position;
+
+    public ReplayViewer(Window owner, MatchReplay replay) {
+        super(owner, "Replay: " + replay.getName(), ModalityType.MODELESS);
+        this.replay = replay;
+
+        boardView = new KakuroBoardView();
+        slider = new JSlider(0, replay.size(), 0);
+        playButton = new JButton("Play");
+        speedCombo = new JComboBox<>();
+        for (double speed : SPEEDS) {
+            speedCombo.addItem((speed < 1 ? String.valueOf(speed) : String.valueOf((int) speed)) + "x");
+        }
+        speedCombo.setSelectedIndex(1);
+        moveLabel = new JLabel();
+        moveLabel.setForeground(Color.WHITE);
+        scoresArea = new JTextArea(8, 16);
+        scoresArea.setEditable(false);
+        scoresArea.setBackground(new Color(25, 25, 40));
+        scoresArea.setForeground(Color.WHITE);
+        scoresArea.setFont(new Font("Consolas", Font.PLAIN, 13));
+
+        timer = new Timer((int) MAX_STEP_MS, e -> step());
+        timer.setRepeats(false);
+
+        slider.addChangeListener(e -> {
+            if (slider.getValue() != position) {
+                seek(slider.getValue());
+            }
+        });
+        playButton.addActionListener(e -> togglePlayback());
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 5));
+        controls.setOpaque(false);
+        controls.add(playButton);
+        controls.add(speedCombo);
+        controls.add(moveLabel);
+
+        JPanel bottom = new JPanel(new BorderLayout(5, 5));
+        bottom.setOpaque(false);
+        bottom.add(slider, BorderLayout.NORTH);
+        bottom.add(controls, BorderLayout.SOUTH);
+
+        JPanel content = new JPanel(new BorderLayout(15, 15));
+        content.setBackground(new Color(15, 15, 25));
+        content.setBorder(new EmptyBorder(15, 15, 15, 15));
+        content.add(boardView, BorderLayout.CENTER);
+        content.add(new JScrollPane(scoresArea), BorderLayout.EAST);
+        content.add(bottom, BorderLayout.SOUTH);
+        setContentPane(content);
+
+        seek(0);
+        setSize(900, 750);
+        setLocationRelativeTo(owner);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+    }
+
+    @Override
+    public void dispose() {
+        timer.stop();
+        super.dispose();
+    }
+
+    private void togglePlayback() {
+        if (timer.isRunning()) {
+            timer.stop();
+            playButton.setText("Play");
+            return;
+        }
+        if (position >= replay.size()) {
+            seek(0);
+        }
+        playButton.setText("Pausa");
+        scheduleNext();
+    }
+
+    private void step() {
+        seek(position + 1);
+        if (position < replay.size()) {
+            scheduleNext();
+        } else {
+            playButton.setText("Play");
+        }
+    }
+
+    private void scheduleNext() {
+        long previous = position == 0 ? replay.getStartedAt() : replay.getEvent(position - 1).getTimestamp();
+        long delta = replay.getEvent(position).getTimestamp() - previous;
+        long clamped = Math.max(MIN_STEP_MS, Math.min(MAX_STEP_MS, delta));
+        timer.setInitialDelay((int) Math.max(1, clamped / SPEEDS[speedCombo.getSelectedIndex()]));
+        timer.restart();
+    }
+
+    private void seek(int target) {
+        GameSession state = replay.stateAt(target);
+        position = Math.max(0, Math.min(target, replay.size()));
+        slider.setValue(position);
+        boardView.setBoard(MatchReplay.foundCellsBoard(state), state.getVersion());
+
+        String last = position > 0 ? "  " + describe(replay.getEvent(position - 1)) : "";
+        moveLabel.setText("Mossa " + position + "/" + replay.size() + last);
+
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : state.getScores().entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+        }
+        if (state.getStatus() == GameSession.Status.FINISHED) {
+            sb.append("\nVincitore: ").append(state.getWinner());
+        }
+        scoresArea.setText(sb.toString());
+    }
+
+    private static String describe(SessionEvent event) {
+        switch (event.getType()) {
+            case JOIN: return event.getPlayer() + " entra";
+            case LEAVE: return event.getPlayer() + " esce";
+            case START: return event.getPlayer() + " avvia la partita";
+            default: return event.getPlayer() + " inserisce " + event.getValue()
+                    + " in (" + event.getRow() + "," + event.getCol() + ")";
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.p2p.kakuro.ui;
+
+import com.p2p.kakuro.challenge.GameSession;
+import com.p2p.kakuro.challenge.MatchReplay;
+import com.p2p.kakuro.network.P2PMessageHandler;
+import com.p2p.kakuro.network.P2PNetworkManager;
+import net.tomp2p.peers.PeerAddress;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+import java.util.Map;
+
+public class SpectatorViewer extends JDialog implements P2PMessageHandler {
+
+    private static final String REFRESH_KEY = "spectator-refresh";
+
+    private final KakuroMainWindow mainFrame;
+    private final P2PNetworkManager client;
+    private final String challengeName;
+    private final KakuroBoardView boardView;
+    private final JLabel statusLabel;
+    private final JTextArea scoresArea;
+    private volatile GameSession latest;
+    private boolean closed;
+
+    public SpectatorViewer(KakuroMainWindow mainFrame, P2PNetworkManager client, String challengeName) {
+        super(mainFrame, "Spettatore: " + challengeName, ModalityType.MODELESS);
+        this.mainFrame = mainFrame;
+        this.client = client;
+        this.challengeName = challengeName;
+
+        boardView = new KakuroBoardView();
+        statusLabel = new JLabel("Stato: ---");
+        statusLabel.setForeground(Color.WHITE);
+        statusLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        scoresArea = new JTextArea(8, 16);
+        scoresArea.setEditable(false);
+        scoresArea.setBackground(new Color(25, 25, 40));
+        scoresArea.setForeground(Color.WHITE);
+        scoresArea.setFont(new Font("Consolas", Font.PLAIN, 13));
+
+        JPanel content = new JPanel(new BorderLayout(15, 15));
+        content.setBackground(new Color(15, 15, 25));
+        content.setBorder(new EmptyBorder(15, 15, 15, 15));
+        content.add(statusLabel, BorderLayout.NORTH);
+        content.add(boardView, BorderLayout.CENTER);
+        content.add(new JScrollPane(scoresArea), BorderLayout.EAST);
+        setContentPane(content);
+
+        client.addListener(this);
+        refresh();
+        setSize(900, 700);
+        setLocationRelativeTo(mainFrame);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+    }
+
+    @Override
+    public void onMessageReceived(PeerAddress sender, GameMessage message) {
+        if (message.getType() == GameMessage.Type.SPECTATE_UPDATED
+                && challengeName.equals(message.getChallengeName())) {
+            SwingUtilities.invokeLater(this::refresh);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (!closed) {
+            closed = true;
+            client.removeListener(this);
+            mainFrame.getCommands().submit(() -> {
+                client.stopSpectating();
+                return null;
+            }, null);
+        }
+        super.dispose();
+    }
+
+    private void refresh() {
+        mainFrame.getCommands().coalesce(REFRESH_KEY, () -> latest = client.getSpectatedChallenge(),
+                () -> render(latest));
+    }
+
+    private void render(GameSession state) {
+        if (closed) return;
+        if (state == null) {
+            dispose();
+            return;
+        }
+
+        boardView.setBoard(MatchReplay.foundCellsBoard(state), state.getVersion());
+        statusLabel.setText("Stato: " + translateStatus(state.getStatus())
+                + "  |  Giocatori: " + state.getParticipantCount());
+
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : state.getScores().entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+        }
+        if (state.getStatus() == GameSession.Status.FINISHED) {
+            sb.append("\nVincitore: ").append(state.getWinner());
+        }
+        scoresArea.setText(sb.toString());
+    }
+
+    private static String translateStatus(GameSession.Status status) {
+        switch (status) {
+            case WAITING: return "In Attesa";
+            case RUNNING: return "In Corso";
+            case FINISHED: return "Terminata";
+            default: return status.toString();
+        }
+    }
+}
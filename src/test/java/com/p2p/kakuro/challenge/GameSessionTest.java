@@ -0,0 +1,179 @@
+package com.p2p.kakuro.challenge;
+
+import com.p2p.kakuro.game.BoardCell;
+import com.p2p.kakuro.game.GameBoard;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameSessionTest {
+
+    private static GameBoard board() {
+        GameBoard board = new GameBoard(3, 3);
+        board.setCell(0, 1, new BoardCell(-1, 4));
+        board.setCell(0, 2, new BoardCell(-1, 3));
+        board.setCell(1, 0, new BoardCell(3, -1));
+        board.setCell(2, 0, new BoardCell(4, -1));
+        board.setCell(1, 1, new BoardCell(1, true));
+        board.setCell(1, 2, new BoardCell(2, true));
+        board.setCell(2, 1, new BoardCell(3, true));
+        board.setCell(2, 2, new BoardCell(1, true));
+        return board;
+    }
+
+    private static List<SessionEvent> match() {
+        List<SessionEvent> events = new ArrayList<>();
+        events.add(SessionEvent.join("alice"));
+        events.add(SessionEvent.join("bob"));
+        events.add(SessionEvent.start("alice"));
+        events.add(SessionEvent.place("alice", 1, 1, 1, 1));
+        events.add(SessionEvent.place("bob", 1, 1, 1, 1));
+        events.add(SessionEvent.place("bob", 1, 2, 5, 2));
+        events.add(SessionEvent.place("bob", 1, 2, 2, 3));
+        events.add(SessionEvent.place("alice", 1, 2, 2, 2));
+        events.add(SessionEvent.place("alice", 2, 1, 3, 3));
+        events.add(SessionEvent.place("alice", 2, 2, 1, 4));
+        List<SessionEvent> sequenced = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            sequenced.add(events.get(i).withSequence(i + 1));
+        }
+        return sequenced;
+    }
+
+    private static GameSession roundTrip(GameSession session) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(session);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (GameSession) in.readObject();
+        }
+    }
+
+    @Test
+    void applyFollowsJoinStartAndPlace() {
+        GameSession session = new GameSession("Test", true, "alice", board());
+        List<SessionEvent> events = match();
+
+        assertEquals(1, session.apply(events.get(0)));
+        assertEquals(1, session.apply(events.get(1)));
+        assertEquals(0, session.apply(SessionEvent.start("bob").withSequence(3)));
+        assertEquals(GameSession.Status.WAITING, session.getStatus());
+        assertEquals(1, session.apply(events.get(2)));
+        assertEquals(GameSession.Status.RUNNING, session.getStatus());
+
+        assertEquals(1, session.apply(events.get(3)));
+        assertEquals(0, session.apply(events.get(4)));
+        assertEquals(0, session.apply(events.get(5)));
+        assertEquals(1, session.apply(events.get(6)));
+
+        assertEquals(1, session.getScore("alice"));
+        assertEquals(1, session.getScore("bob"));
+        assertEquals("alice", session.getCellFinder(1, 1));
+        assertEquals("bob", session.getCellFinder(1, 2));
+        assertEquals(7, session.getLastSequence());
+    }
+
+    @Test
+    void finishingMoveSetsWinner() {
+        GameSession session = new GameSession("Test", true, "alice", board());
+        for (SessionEvent event : match()) {
+            session.apply(event);
+        }
+
+        assertEquals(GameSession.Status.FINISHED, session.getStatus());
+        assertEquals("alice", session.getWinner());
+        assertEquals(3, session.getScore("alice"));
+        assertEquals(1, session.getScore("bob"));
+    }
+
+    @Test
+    void previewOfFinishingMoveLeavesSessionRunning() {
+        GameSession session = new GameSession("Test", true, "alice", board());
+        List<SessionEvent> events = match();
+        for (SessionEvent event : events.subList(0, events.size() - 1)) {
+            session.apply(event);
+        }
+        long version = session.getVersion();
+
+        assertEquals(1, session.previewPlace("alice", 2, 2, 1));
+        assertEquals(0, session.previewPlace("alice", 2, 2, 7));
+        assertEquals(0, session.previewPlace("alice", 1, 1, 1));
+        assertEquals(0, session.previewPlace("carol", 2, 2, 1));
+
+        assertEquals(GameSession.Status.RUNNING, session.getStatus());
+        assertNull(session.getWinner());
+        assertFalse(session.isCellFound(2, 2));
+        assertEquals(version, session.getVersion());
+    }
+
+    @Test
+    void duplicateMoveIsNotAppliedTwice() {
+        GameSession session = new GameSession("Test", true, "alice", board());
+        List<SessionEvent> events = match();
+        for (SessionEvent event : events.subList(0, 4)) {
+            session.apply(event);
+        }
+
+        SessionEvent retry = SessionEvent.place("alice", 1, 1, 1, 1).withSequence(5);
+        assertTrue(session.isDuplicateMove(retry));
+        assertEquals(0, session.apply(retry));
+        assertEquals(1, session.getScore("alice"));
+        assertEquals(5, session.getLastSequence());
+
+        SessionEvent unsequenced = SessionEvent.place("alice", 1, 2, 2, 0).withSequence(6);
+        assertFalse(session.isDuplicateMove(unsequenced));
+        assertEquals(1, session.apply(unsequenced));
+        assertEquals(1, session.getLastMoveSequence("alice"));
+
+        SessionEvent stale = SessionEvent.place("alice", 2, 1, 3, 1).withSequence(7);
+        assertEquals(0, session.apply(stale));
+        assertFalse(session.isCellFound(2, 1));
+        assertNull(session.getCellFinder(2, 1));
+    }
+
+    @Test
+    void snapshotPlusTailReplaysToSameState() throws Exception {
+        List<SessionEvent> events = match();
+        GameSession full = new GameSession("Test", true, "alice", board());
+        GameSession base = full.copy();
+        for (SessionEvent event : events) {
+            full.apply(event);
+        }
+
+        for (int split = 0; split <= events.size(); split++) {
+            GameSession snapshot = base.copy();
+            for (SessionEvent event : events.subList(0, split)) {
+                snapshot.apply(event);
+            }
+            GameSession replayed = roundTrip(snapshot);
+            for (SessionEvent event : events.subList(split, events.size())) {
+                replayed.apply(event);
+            }
+
+            assertEquals(full.getInstanceId(), replayed.getInstanceId());
+            assertEquals(full.getLastSequence(), replayed.getLastSequence());
+            assertEquals(full.getVersion(), replayed.getVersion());
+            assertEquals(full.getStatus(), replayed.getStatus());
+            assertEquals(full.getWinner(), replayed.getWinner());
+            assertEquals(full.getScores(), replayed.getScores());
+            assertEquals(full.getLastMoveSequence("alice"), replayed.getLastMoveSequence("alice"));
+            assertEquals(full.getLastMoveSequence("bob"), replayed.getLastMoveSequence("bob"));
+            for (int i = 0; i < 3; i++) {
+                for (int j = 0; j < 3; j++) {
+                    assertEquals(full.getCellFinder(i, j), replayed.getCellFinder(i, j));
+                }
+            }
+        }
+    }
+}
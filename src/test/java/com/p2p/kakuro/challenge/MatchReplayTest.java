@@ -0,0 +1,163 @@
+package com.p2p.kakuro.challenge;
+
+import com.p2p.kakuro.game.GameBoard;
+import com.p2p.kakuro.game.PuzzleGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MatchReplayTest {
+
+    @TempDir
+    Path directory;
+
+    private interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static GameSession started() {
+        GameSession session = new GameSession("Replay", true, "alice", PuzzleGenerator.Difficulty.HARD);
+        session.apply(SessionEvent.join("alice").withSequence(1));
+        session.apply(SessionEvent.join("bob").withSequence(2));
+        session.apply(SessionEvent.start("alice").withSequence(3));
+        return session;
+    }
+
+    private static void assertSameState(GameSession expected, GameSession actual) {
+        assertEquals(expected.getLastSequence(), actual.getLastSequence());
+        assertEquals(expected.getVersion(), actual.getVersion());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getWinner(), actual.getWinner());
+        assertEquals(expected.getScores(), actual.getScores());
+        GameBoard board = expected.getMasterBoard();
+        for (int i = 0; i < board.getRows(); i++) {
+            for (int j = 0; j < board.getCols(); j++) {
+                assertEquals(expected.getCellFinder(i, j), actual.getCellFinder(i, j));
+            }
+        }
+    }
+
+    private static byte[] serialize(Object state) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(state);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Path write(Object state, Body body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MatchReplay.MAGIC);
+        out.writeShort(MatchReplay.VERSION);
+        out.writeUTF("Replay");
+        out.writeLong(0);
+        byte[] serialized = serialize(state);
+        out.writeInt(serialized.length);
+        out.write(serialized);
+        body.write(out);
+        out.flush();
+        return Files.write(Files.createTempFile(directory, "corrupt", MatchReplay.EXTENSION), bytes.toByteArray());
+    }
+
+    private static void event(DataOutputStream out, int type, int player, int row, int col, int value) throws IOException {
+        out.writeByte(MatchReplay.TAG_EVENT);
+        out.writeByte(type);
+        out.writeByte(player);
+        out.writeByte(row);
+        out.writeByte(col);
+        out.writeByte(value);
+        out.writeByte(1);
+        out.writeByte(0);
+    }
+
+    @Test
+    void stateAtMatchesLiveStateAtEveryPosition() throws IOException {
+        GameSession live = started();
+        GameBoard master = live.getMasterBoard();
+        List<GameSession> truth = new ArrayList<>();
+        Random random = new Random(3);
+
+        Path file;
+        try (ReplayRecorder recorder = ReplayRecorder.start(directory, live)) {
+            file = recorder.getFile();
+            long sequence = live.getLastSequence();
+            while (live.getStatus() != GameSession.Status.FINISHED) {
+                int i = random.nextInt(master.getRows());
+                int j = random.nextInt(master.getCols());
+                if (!master.isPlayable(i, j)) continue;
+                String player = random.nextBoolean() ? "alice" : "bob";
+                int value = random.nextInt(4) == 0 ? master.getSolution(i, j) % 9 + 1 : master.getSolution(i, j);
+                SessionEvent event = SessionEvent.place(player, i, j, value, 0).withSequence(++sequence);
+                live.apply(event);
+                recorder.record(event);
+                truth.add(live.copy());
+                if (truth.size() == 40) {
+                    recorder.resync(live);
+                }
+            }
+        }
+
+        MatchReplay replay = MatchReplay.read(file);
+        assertTrue(truth.size() >= 54, "only " + truth.size() + " moves");
+        assertEquals(truth.size(), replay.size());
+        assertSameState(started(), replay.stateAt(0));
+        for (int position = 1; position <= replay.size(); position++) {
+            assertSameState(truth.get(position - 1), replay.stateAt(position));
+        }
+        assertSameState(truth.get(truth.size() - 1), replay.stateAt(replay.size() + 10));
+    }
+
+    @Test
+    void corruptFilesFailWithIOException() throws IOException {
+        GameSession state = started();
+        List<Path> files = new ArrayList<>();
+
+        files.add(write(state, out -> event(out, 200, 0, 1, 1, 1)));
+        files.add(write(state, out -> event(out, SessionEvent.Type.PLACE.ordinal(), 5, 1, 1, 1)));
+        files.add(write(state, out -> {
+            out.writeByte(MatchReplay.TAG_PLAYER);
+            out.writeUTF("alice");
+            event(out, SessionEvent.Type.PLACE.ordinal(), 0, 100, 1, 1);
+        }));
+        files.add(write(state, out -> {
+            out.writeByte(MatchReplay.TAG_PLAYER);
+            out.writeUTF("alice");
+            out.writeByte(MatchReplay.TAG_EVENT);
+            out.writeByte(SessionEvent.Type.PLACE.ordinal());
+            for (int i = 0; i < 12; i++) {
+                out.writeByte(0x80);
+            }
+        }));
+        files.add(write(state, out -> {
+            out.writeByte(MatchReplay.TAG_RESYNC);
+            out.writeInt(Integer.MAX_VALUE);
+        }));
+        files.add(write(state, out -> {
+            out.writeByte(MatchReplay.TAG_RESYNC);
+            out.writeInt(-1);
+        }));
+        files.add(write(state, out -> out.writeByte(42)));
+        files.add(write("not a session", out -> { }));
+        files.add(write(new ArrayList<>(List.of(new File("/etc/passwd"))), out -> { }));
+        files.add(Files.write(directory.resolve("truncated" + MatchReplay.EXTENSION), new byte[]{0x4B, 0x52}));
+
+        for (Path file : files) {
+            assertThrows(IOException.class, () -> MatchReplay.read(file));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.p2p.kakuro.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HintEngineTest {
+
+    private static GameBoard nakedSingleBoard() {
+        GameBoard board = new GameBoard(3, 3);
+        board.setCell(0, 1, new BoardCell(-1, 4));
+        board.setCell(0, 2, new BoardCell(-1, 3));
+        board.setCell(1, 0, new BoardCell(3, -1));
+        board.setCell(2, 0, new BoardCell(4, -1));
+        board.setCell(1, 1, new BoardCell(1, true));
+        board.setCell(1, 2, new BoardCell(2, true));
+        board.setCell(2, 1, new BoardCell(3, true));
+        board.setCell(2, 2, new BoardCell(1, true));
+        return board;
+    }
+
+    private static GameBoard hiddenSingleBoard() {
+        GameBoard board = new GameBoard(3, 4);
+        board.setCell(0, 1, new BoardCell(-1, 3));
+        board.setCell(0, 2, new BoardCell(-1, 3));
+        board.setCell(1, 0, new BoardCell(6, -1));
+        board.setCell(2, 0, new BoardCell(3, -1));
+        board.setCell(1, 1, new BoardCell(1, true));
+        board.setCell(1, 2, new BoardCell(2, true));
+        board.setCell(1, 3, new BoardCell(3, true));
+        board.setCell(2, 1, new BoardCell(2, true));
+        board.setCell(2, 2, new BoardCell(1, true));
+        return board;
+    }
+
+    @Test
+    void nakedSingleFromIntersectingRuns() {
+        GameBoard board = nakedSingleBoard();
+        HintEngine engine = new HintEngine(board.getLayout());
+
+        HintEngine.Hint hint = engine.nextHint(board);
+
+        assertEquals(1, hint.getRow());
+        assertEquals(1, hint.getCol());
+        assertEquals(1, hint.getValue());
+        assertEquals(HintEngine.Technique.NAKED_SINGLE, hint.getTechnique());
+    }
+
+    @Test
+    void hiddenSingleFromRequiredDigit() {
+        GameBoard board = hiddenSingleBoard();
+        HintEngine engine = new HintEngine(board.getLayout());
+
+        HintEngine.Hint hint = engine.nextHint(board);
+
+        assertEquals(1, hint.getRow());
+        assertEquals(3, hint.getCol());
+        assertEquals(3, hint.getValue());
+        assertEquals(HintEngine.Technique.HIDDEN_SINGLE, hint.getTechnique());
+        assertEquals(1 << 1 | 1 << 2, engine.getCandidates(1, 1));
+    }
+
+    @Test
+    void hintsFollowPlacedValuesUntilSolved() {
+        GameBoard board = nakedSingleBoard();
+        HintEngine engine = new HintEngine(board.getLayout());
+
+        for (int step = 0; step < 4; step++) {
+            HintEngine.Hint hint = engine.nextHint(board);
+            assertEquals(board.getSolution(hint.getRow(), hint.getCol()), hint.getValue());
+            board.placeNumber(hint.getRow(), hint.getCol(), hint.getValue());
+        }
+
+        assertTrue(board.isComplete());
+        assertNull(engine.nextHint(board));
+    }
+
+    @Test
+    void matchesDeserializedCopyOfLayout() throws Exception {
+        GameBoard board = nakedSingleBoard();
+        HintEngine engine = new HintEngine(board.getLayout());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(board);
+        }
+        GameBoard copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (GameBoard) in.readObject();
+        }
+
+        assertTrue(engine.matches(copy));
+    }
+}
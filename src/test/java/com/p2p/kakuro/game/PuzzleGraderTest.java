@@ -0,0 +1,128 @@
+package com.p2p.kakuro.game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PuzzleGraderTest {
+
+    @TempDir
+    Path directory;
+
+    private static GameBoard singleRunBoard() {
+        GameBoard board = new GameBoard(2, 3);
+        board.setCell(0, 1, new BoardCell(-1, 1));
+        board.setCell(0, 2, new BoardCell(-1, 2));
+        board.setCell(1, 0, new BoardCell(3, -1));
+        board.setCell(1, 1, new BoardCell(1, true));
+        board.setCell(1, 2, new BoardCell(2, true));
+        return board;
+    }
+
+    private static GameBoard crossingRunsBoard() {
+        GameBoard board = new GameBoard(3, 3);
+        board.setCell(0, 1, new BoardCell(-1, 4));
+        board.setCell(0, 2, new BoardCell(-1, 3));
+        board.setCell(1, 0, new BoardCell(3, -1));
+        board.setCell(2, 0, new BoardCell(4, -1));
+        board.setCell(1, 1, new BoardCell(1, true));
+        board.setCell(1, 2, new BoardCell(2, true));
+        board.setCell(2, 1, new BoardCell(3, true));
+        board.setCell(2, 2, new BoardCell(1, true));
+        return board;
+    }
+
+    private static GameBoard ambiguousBoard() {
+        GameBoard board = new GameBoard(3, 3);
+        board.setCell(0, 1, new BoardCell(-1, 3));
+        board.setCell(0, 2, new BoardCell(-1, 3));
+        board.setCell(1, 0, new BoardCell(3, -1));
+        board.setCell(2, 0, new BoardCell(3, -1));
+        board.setCell(1, 1, new BoardCell(1, true));
+        board.setCell(1, 2, new BoardCell(2, true));
+        board.setCell(2, 1, new BoardCell(2, true));
+        board.setCell(2, 2, new BoardCell(1, true));
+        return board;
+    }
+
+    @Test
+    void nakedSinglesOnlyRateEasy() {
+        PuzzleGrader.Grade grade = PuzzleGrader.grade(singleRunBoard());
+
+        assertEquals(2, grade.getPlayableCells());
+        assertEquals(2, grade.getSteps());
+        assertTrue(grade.isSolvedLogically());
+        assertEquals(2, grade.getTechniqueCount(HintEngine.Technique.NAKED_SINGLE));
+        assertEquals(0, grade.getTechniqueCount(HintEngine.Technique.HIDDEN_SINGLE));
+        assertEquals(1.0, grade.getScore(), 1e-9);
+        assertEquals(PuzzleGrader.Rating.EASY, grade.getRating());
+    }
+
+    @Test
+    void hiddenSinglesRateMedium() {
+        PuzzleGrader.Grade grade = PuzzleGrader.grade(crossingRunsBoard());
+
+        assertEquals(4, grade.getPlayableCells());
+        assertEquals(4, grade.getSteps());
+        assertTrue(grade.isSolvedLogically());
+        assertEquals(2, grade.getTechniqueCount(HintEngine.Technique.NAKED_SINGLE));
+        assertEquals(2, grade.getTechniqueCount(HintEngine.Technique.HIDDEN_SINGLE));
+        assertEquals(1.5, grade.getScore(), 1e-9);
+        assertEquals(PuzzleGrader.Rating.MEDIUM, grade.getRating());
+    }
+
+    @Test
+    void ambiguousLayoutIsUnresolvedAndHard() {
+        PuzzleGrader.Grade grade = PuzzleGrader.grade(ambiguousBoard());
+
+        assertFalse(grade.isSolvedLogically());
+        assertEquals(4, grade.getUnresolvedCells());
+        assertEquals(0, grade.getSteps());
+        assertEquals(6.0, grade.getScore(), 1e-9);
+        assertEquals(PuzzleGrader.Rating.HARD, grade.getRating());
+    }
+
+    @Test
+    void scoreThresholdsSplitRatings() {
+        assertEquals(PuzzleGrader.Rating.EASY, PuzzleGrader.Rating.forScore(1.25));
+        assertEquals(PuzzleGrader.Rating.MEDIUM, PuzzleGrader.Rating.forScore(1.26));
+        assertEquals(PuzzleGrader.Rating.MEDIUM, PuzzleGrader.Rating.forScore(2.0));
+        assertEquals(PuzzleGrader.Rating.HARD, PuzzleGrader.Rating.forScore(2.01));
+    }
+
+    @Test
+    void gradeAllKeepsInputOrder() {
+        List<GameBoard> boards = Arrays.asList(ambiguousBoard(), singleRunBoard(), crossingRunsBoard());
+
+        List<PuzzleGrader.Grade> grades = PuzzleGrader.gradeAll(boards);
+
+        assertEquals(PuzzleGrader.Rating.HARD, grades.get(0).getRating());
+        assertEquals(PuzzleGrader.Rating.EASY, grades.get(1).getRating());
+        assertEquals(PuzzleGrader.Rating.MEDIUM, grades.get(2).getRating());
+    }
+
+    @Test
+    void libraryServesPuzzlesByRating() throws IOException {
+        try (PuzzleLibrary library = PuzzleLibrary.open(directory)) {
+            library.add(crossingRunsBoard());
+            library.add(ambiguousBoard());
+
+            assertEquals(1, library.count(3, 3, PuzzleGrader.Rating.MEDIUM));
+            assertEquals(1, library.count(3, 3, PuzzleGrader.Rating.HARD));
+            assertEquals(0, library.count(3, 3, PuzzleGrader.Rating.EASY));
+            assertNull(library.random(3, 3, PuzzleGrader.Rating.EASY));
+            assertEquals(crossingRunsBoard().getLayout(),
+                    library.random(3, 3, PuzzleGrader.Rating.MEDIUM).getLayout());
+            assertEquals(PuzzleGrader.Rating.HARD, library.getRating(1));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.p2p.kakuro.game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PuzzleLibraryTest {
+
+    private static final String SMALL =
+            "3 3\n" +
+            "# 4\\- 3\\-\n" +
+            "-\\3 1 2\n" +
+            "-\\4 3 1\n";
+
+    @TempDir
+    Path directory;
+
+    private static List<GameBoard> generated() {
+        List<GameBoard> boards = new ArrayList<>();
+        for (PuzzleGenerator.Difficulty difficulty : PuzzleGenerator.Difficulty.values()) {
+            for (int i = 0; i < 3; i++) {
+                boards.add(PuzzleGenerator.generate(difficulty));
+            }
+        }
+        return boards;
+    }
+
+    private static String toText(List<GameBoard> boards) throws IOException {
+        StringWriter writer = new StringWriter();
+        for (GameBoard board : boards) {
+            PuzzleLibrary.writeText(board, writer);
+        }
+        return writer.toString();
+    }
+
+    @Test
+    void textRoundTripKeepsLayouts() throws IOException {
+        List<GameBoard> boards = generated();
+
+        List<GameBoard> parsed = PuzzleLibrary.readText(new StringReader(toText(boards)));
+
+        assertEquals(boards.size(), parsed.size());
+        for (int i = 0; i < boards.size(); i++) {
+            assertEquals(boards.get(i).getLayout(), parsed.get(i).getLayout());
+        }
+    }
+
+    @Test
+    void binaryRecordsSurviveReopen() throws IOException {
+        List<GameBoard> boards = generated();
+        try (PuzzleLibrary library = PuzzleLibrary.open(directory)) {
+            assertEquals(boards.size(), library.addAll(boards));
+            assertEquals(-1, library.add(boards.get(0)));
+        }
+
+        try (PuzzleLibrary library = PuzzleLibrary.open(directory)) {
+            assertEquals(boards.size(), library.size());
+            for (int i = 0; i < boards.size(); i++) {
+                assertEquals(boards.get(i).getLayout(), library.get(i).getLayout());
+                assertTrue(library.contains(boards.get(i)));
+            }
+            PuzzleGenerator.Difficulty easy = PuzzleGenerator.Difficulty.EASY;
+            assertEquals(easy.getRows(), library.random(easy).getRows());
+        }
+    }
+
+    @Test
+    void importThenExportMatchesSource() throws IOException {
+        String text = toText(generated()) + SMALL;
+
+        StringWriter exported = new StringWriter();
+        try (PuzzleLibrary library = PuzzleLibrary.open(directory)) {
+            assertEquals(10, library.importText(new StringReader(text)));
+            assertEquals(0, library.importText(new StringReader(SMALL)));
+            library.exportText(exported);
+        }
+
+        List<GameBoard> expected = PuzzleLibrary.readText(new StringReader(text));
+        List<GameBoard> actual = PuzzleLibrary.readText(new StringReader(exported.toString()));
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getLayout(), actual.get(i).getLayout());
+        }
+    }
+
+    @Test
+    void corruptRatingIsReportedAsIOException() throws IOException {
+        try (PuzzleLibrary library = PuzzleLibrary.open(directory)) {
+            library.importText(new StringReader(SMALL));
+        }
+        try (RandomAccessFile index = new RandomAccessFile(directory.resolve("puzzles.idx").toFile(), "rw")) {
+            index.seek(16 + 14);
+            index.write(0x7F);
+        }
+
+        assertThrows(IOException.class, () -> PuzzleLibrary.open(directory));
+    }
+
+    @Test
+    void malformedTextIsRejected() {
+        String[] inputs = {
+                "3\n",
+                "3 x\n",
+                "3 3\n# 4\\- 3\\-\n-\\3 1 2\n",
+                "3 3\n# 4\\- 3\\-\n-\\3 1 2\n-\\4 3\n",
+                "3 3\n# a\\- 3\\-\n-\\3 1 2\n-\\4 3 1\n",
+                "3 3\n# 4\\-\\1 3\\-\n-\\3 1 2\n-\\4 3 1\n",
+                "3 3\n# 99\\- 3\\-\n-\\3 1 2\n-\\4 3 1\n",
+                "3 3\n# 5\\- 3\\-\n-\\3 1 2\n-\\4 3 1\n",
+                "3 3\n# 4\\- 3\\-\n-\\4 2 2\n-\\4 3 1\n",
+                "3 3\n# # 3\\-\n-\\3 1 2\n-\\4 3 1\n",
+                "3 3\n# 4\\- 3\\-\n-\\3 1 2\n-\\4 3 0\n",
+        };
+        for (String input : inputs) {
+            assertThrows(IOException.class, () -> PuzzleLibrary.readText(new StringReader(input)));
+        }
+    }
+}
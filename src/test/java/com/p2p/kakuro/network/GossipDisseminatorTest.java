@@ -0,0 +1,67 @@
+package com.p2p.kakuro.network;
+
+import com.p2p.kakuro.challenge.PlayerInfo;
+import com.p2p.kakuro.network.P2PMessageHandler.GameMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GossipDisseminatorTest {
+
+    private static final int PEERS = 300;
+
+    @Test
+    void announcementReachesEveryPeerThroughCarriedMembership() throws Exception {
+        List<PlayerInfo> players = new ArrayList<>();
+        for (int i = 0; i < PEERS; i++) {
+            players.add(new PlayerInfo("player" + i, null, 0));
+        }
+
+        Map<String, AtomicInteger> delivered = new ConcurrentHashMap<>();
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger largestSlice = new AtomicInteger();
+        Map<PlayerInfo, GossipDisseminator> nodes = new HashMap<>();
+        for (PlayerInfo player : players) {
+            nodes.put(player, new GossipDisseminator(GossipDisseminator.DEFAULT_FANOUT,
+                    GossipDisseminator.DEFAULT_TTL, (target, message) -> {
+                GossipDisseminator.Envelope envelope = (GossipDisseminator.Envelope) message;
+                sent.incrementAndGet();
+                largestSlice.accumulateAndGet(envelope.getMembers().size(), Math::max);
+                if (nodes.get(target).accept(envelope, target)) {
+                    delivered.computeIfAbsent(target.getNickname(), k -> new AtomicInteger()).incrementAndGet();
+                }
+            }));
+        }
+
+        try {
+            PlayerInfo announcer = players.get(0);
+            nodes.get(announcer).announce(TopicRegistry.LOBBY,
+                    new GameMessage(GameMessage.Type.PUBLIC_CHALLENGES_UPDATED, "sfida", announcer.getNickname()),
+                    announcer, players);
+            int last = -1;
+            long deadline = System.currentTimeMillis() + 5000;
+            while (sent.get() != last && System.currentTimeMillis() < deadline) {
+                last = sent.get();
+                Thread.sleep(100);
+            }
+        } finally {
+            for (GossipDisseminator node : nodes.values()) {
+                node.shutdown();
+            }
+        }
+
+        assertEquals(PEERS - 1, delivered.size());
+        assertFalse(delivered.containsKey(players.get(0).getNickname()));
+        int slice = (PEERS - 1 + GossipDisseminator.DEFAULT_FANOUT - 1) / GossipDisseminator.DEFAULT_FANOUT;
+        assertTrue(largestSlice.get() < slice);
+    }
+}
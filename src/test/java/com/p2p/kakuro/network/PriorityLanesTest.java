@@ -0,0 +1,136 @@
+package com.p2p.kakuro.network;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriorityLanesTest {
+
+    @Test
+    void gameTasksRunOneAtATimeInSubmissionOrder() {
+        PriorityLanes lanes = new PriorityLanes("test");
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        try {
+            for (int i = 0; i < 200; i++) {
+                int task = i;
+                lanes.submit(PriorityLanes.Lane.GAME, () -> {
+                    if (active.incrementAndGet() > 1) overlaps.incrementAndGet();
+                    order.add(task);
+                    Thread.yield();
+                    active.decrementAndGet();
+                });
+                if (i % 3 == 0) {
+                    lanes.submit(PriorityLanes.Lane.LOBBY, Thread::yield);
+                }
+            }
+            assertTrue(lanes.awaitIdle(PriorityLanes.Lane.GAME, 5000));
+        } finally {
+            lanes.shutdown();
+        }
+
+        assertEquals(0, overlaps.get());
+        assertEquals(200, order.size());
+        for (int i = 0; i < order.size(); i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+    }
+
+    @Test
+    void blockedKeyDoesNotHoldOtherKeysOfItsLane() throws Exception {
+        PriorityLanes lanes = new PriorityLanes("test");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch others = new CountDownLatch(3);
+        AtomicInteger queuedBehind = new AtomicInteger();
+        try {
+            lanes.submit(PriorityLanes.Lane.GAME, "dead", () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            lanes.submit(PriorityLanes.Lane.GAME, "dead", queuedBehind::incrementAndGet);
+            for (String key : new String[] {"alice", "bob", "carol"}) {
+                lanes.submit(PriorityLanes.Lane.GAME, key, others::countDown);
+            }
+
+            assertTrue(others.await(5, TimeUnit.SECONDS));
+            assertEquals(0, queuedBehind.get());
+            assertEquals(1, lanes.pending(PriorityLanes.Lane.GAME));
+        } finally {
+            release.countDown();
+            lanes.shutdown();
+        }
+    }
+
+    @Test
+    void contendedWorkersServeGameFourTimesAsOftenAsLobby() throws Exception {
+        PriorityLanes lanes = new PriorityLanes("test");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch busy = new CountDownLatch(PriorityLanes.WORKERS);
+        List<PriorityLanes.Lane> order = Collections.synchronizedList(new ArrayList<>());
+        try {
+            for (int i = 0; i < PriorityLanes.WORKERS; i++) {
+                lanes.submit(PriorityLanes.Lane.GAME, "hold" + i, () -> {
+                    busy.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            assertTrue(busy.await(5, TimeUnit.SECONDS));
+
+            for (int i = 0; i < 100; i++) {
+                lanes.submit(PriorityLanes.Lane.GAME, "game" + i, () -> order.add(PriorityLanes.Lane.GAME));
+                lanes.submit(PriorityLanes.Lane.LOBBY, "lobby" + i, () -> order.add(PriorityLanes.Lane.LOBBY));
+            }
+            release.countDown();
+            assertTrue(lanes.awaitIdle(PriorityLanes.Lane.GAME, 5000));
+        } finally {
+            release.countDown();
+            lanes.shutdown();
+        }
+
+        int game = 0;
+        for (PriorityLanes.Lane lane : order.subList(0, 50)) {
+            if (lane == PriorityLanes.Lane.GAME) game++;
+        }
+        assertTrue(game >= 35, "GAME ran " + game + " of the first 50 tasks");
+    }
+
+    @Test
+    void slowLobbyTaskDoesNotBlockGameLane() throws Exception {
+        PriorityLanes lanes = new PriorityLanes("test");
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch game = new CountDownLatch(1);
+        try {
+            lanes.submit(PriorityLanes.Lane.LOBBY, () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            lanes.submit(PriorityLanes.Lane.LOBBY, Thread::yield);
+            lanes.submit(PriorityLanes.Lane.GAME, game::countDown);
+
+            assertTrue(game.await(5, TimeUnit.SECONDS));
+            assertEquals(1, lanes.pending(PriorityLanes.Lane.LOBBY));
+        } finally {
+            release.countDown();
+            lanes.shutdown();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.p2p.kakuro.network;
+
+import com.p2p.kakuro.challenge.PlayerInfo;
+import com.p2p.kakuro.challenge.SessionEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpectatorRelayTest {
+
+    private static final int SPECTATORS = 100;
+
+    @Test
+    void everySpectatorReceivesEachEventOnceWithoutReadingSubscribers() throws Exception {
+        List<PlayerInfo> spectators = new ArrayList<>();
+        for (int i = 0; i < SPECTATORS; i++) {
+            spectators.add(new PlayerInfo("spectator" + i, null, 0));
+        }
+
+        AtomicInteger reads = new AtomicInteger();
+        Map<String, AtomicInteger> received = new ConcurrentHashMap<>();
+        AtomicInteger largestSubtree = new AtomicInteger();
+        SpectatorRelay[] relay = new SpectatorRelay[1];
+        relay[0] = new SpectatorRelay(SpectatorRelay.DEFAULT_FANOUT, (target, message) -> {
+            SpectatorRelay.Update update = (SpectatorRelay.Update) message;
+            received.computeIfAbsent(target.getNickname(), k -> new AtomicInteger()).incrementAndGet();
+            largestSubtree.accumulateAndGet(update.getSubtree().size(), Math::max);
+            relay[0].relay(update);
+        }, topic -> {
+            reads.incrementAndGet();
+            return spectators;
+        });
+
+        try {
+            relay[0].publish("sfida", "instance", SessionEvent.join("alice").withSequence(1));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (total(received) < SPECTATORS && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(50);
+        } finally {
+            relay[0].shutdown();
+        }
+
+        assertEquals(SPECTATORS, received.size());
+        for (AtomicInteger count : received.values()) {
+            assertEquals(1, count.get());
+        }
+        assertEquals(1, reads.get());
+        int chunk = (SPECTATORS + SpectatorRelay.DEFAULT_FANOUT - 1) / SpectatorRelay.DEFAULT_FANOUT;
+        assertTrue(largestSubtree.get() < chunk);
+    }
+
+    private static int total(Map<String, AtomicInteger> received) {
+        int total = 0;
+        for (AtomicInteger count : received.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+}